@@ -0,0 +1,47 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.benchmark;
+
+import net.raphimc.noteblocklib.format.nbs.NbsConverter;
+import net.raphimc.noteblocklib.format.nbs.model.NbsSong;
+import net.raphimc.noteblocklib.model.song.Song;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class NbsConverterBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int noteCount;
+
+    private Song song;
+
+    @Setup
+    public void setup() {
+        this.song = SyntheticCorpus.createSong(this.noteCount, SyntheticCorpus.DEFAULT_SEED);
+    }
+
+    @Benchmark
+    public NbsSong createSong() {
+        return NbsConverter.createSong(this.song);
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.benchmark;
+
+import net.raphimc.noteblocklib.format.nbs.NbsIo;
+import net.raphimc.noteblocklib.format.nbs.model.NbsSong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+@State(Scope.Benchmark)
+public class NbsIoBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int noteCount;
+
+    private byte[] songBytes;
+    private NbsSong song;
+    private ByteArrayOutputStream outputStream;
+
+    @Setup
+    public void setup() throws IOException {
+        this.songBytes = SyntheticCorpus.createNbsBytes(this.noteCount, SyntheticCorpus.DEFAULT_SEED);
+        this.song = NbsIo.readSong(ByteBuffer.wrap(this.songBytes), "benchmark.nbs");
+        this.outputStream = new ByteArrayOutputStream(this.songBytes.length);
+    }
+
+    @Benchmark
+    public NbsSong readSongFromStream() throws IOException {
+        return NbsIo.readSong(new ByteArrayInputStream(this.songBytes), "benchmark.nbs");
+    }
+
+    @Benchmark
+    public NbsSong readSongFromBuffer() throws IOException {
+        return NbsIo.readSong(ByteBuffer.wrap(this.songBytes), "benchmark.nbs");
+    }
+
+    @Benchmark
+    public int writeSong() throws IOException {
+        this.outputStream.reset();
+        NbsIo.writeSong(this.song, this.outputStream);
+        return this.outputStream.size();
+    }
+
+}
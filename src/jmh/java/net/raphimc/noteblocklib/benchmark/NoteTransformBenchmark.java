@@ -0,0 +1,81 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.benchmark;
+
+import net.raphimc.noteblocklib.format.minecraft.MinecraftDefinitions;
+import net.raphimc.noteblocklib.model.note.NoteTransformPipeline;
+import net.raphimc.noteblocklib.model.song.Song;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.ForkJoinPool;
+
+@State(Scope.Benchmark)
+public class NoteTransformBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int noteCount;
+
+    private Song song;
+    private Song workingSong;
+    private NoteTransformPipeline pipeline;
+
+    @Setup
+    public void setup() {
+        this.song = SyntheticCorpus.createSong(this.noteCount, SyntheticCorpus.DEFAULT_SEED);
+        this.pipeline = new NoteTransformPipeline()
+            .transform(MinecraftDefinitions::instrumentShiftNote)
+            .transform(MinecraftDefinitions::clampNoteKey)
+            .removeSilentNotes()
+            .removeDoubleNotes();
+    }
+
+    /**
+     * The transformations modify the song in place, so every invocation works on a fresh, fully unshared copy. Neither the copy nor the clone of its notes is part of the measurement.
+     */
+    @Setup(Level.Invocation)
+    public void copySong() {
+        this.workingSong = SyntheticCorpus.deepCopy(this.song);
+    }
+
+    @Benchmark
+    public Song separatePasses() {
+        this.workingSong.getNotes().forEach(MinecraftDefinitions::instrumentShiftNote);
+        this.workingSong.getNotes().forEach(MinecraftDefinitions::clampNoteKey);
+        this.workingSong.getNotes().removeSilentNotes();
+        this.workingSong.getNotes().removeDoubleNotes();
+        return this.workingSong;
+    }
+
+    @Benchmark
+    public Song pipeline() {
+        this.pipeline.apply(this.workingSong);
+        return this.workingSong;
+    }
+
+    @Benchmark
+    public Song parallelPipeline() {
+        this.pipeline.apply(this.workingSong, ForkJoinPool.commonPool());
+        return this.workingSong;
+    }
+
+}
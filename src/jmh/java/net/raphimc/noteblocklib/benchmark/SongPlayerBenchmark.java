@@ -0,0 +1,102 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.benchmark;
+
+import net.raphimc.noteblocklib.model.note.Note;
+import net.raphimc.noteblocklib.model.song.Song;
+import net.raphimc.noteblocklib.player.SongPlayer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+/**
+ * Simulates the tick loop of a song player without any scheduler, so only the per-tick lookup and dispatch cost is measured.
+ */
+@State(Scope.Benchmark)
+public class SongPlayerBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int noteCount;
+
+    /**
+     * Frozen songs are played from a precompiled timeline, mutable songs are read directly.
+     */
+    @Param({"false", "true"})
+    boolean frozen;
+
+    private SimulatedSongPlayer songPlayer;
+
+    @Setup
+    public void setup() {
+        final Song song = SyntheticCorpus.createSong(this.noteCount, SyntheticCorpus.DEFAULT_SEED);
+        this.songPlayer = new SimulatedSongPlayer(this.frozen ? song.freeze() : song);
+        this.songPlayer.recompileTimeline();
+    }
+
+    @Benchmark
+    public int playSong(final Blackhole blackhole) {
+        return this.songPlayer.playToEnd(blackhole);
+    }
+
+    private static final class SimulatedSongPlayer extends SongPlayer {
+
+        private Blackhole blackhole;
+        private int playedNotes;
+        private boolean finished;
+
+        SimulatedSongPlayer(final Song song) {
+            super(song);
+        }
+
+        int playToEnd(final Blackhole blackhole) {
+            this.blackhole = blackhole;
+            this.playedNotes = 0;
+            this.finished = false;
+            this.setTick(0);
+            while (!this.finished) {
+                this.tick();
+            }
+            return this.playedNotes;
+        }
+
+        @Override
+        protected void playNotes(final List<Note> notes) {
+            for (Note note : notes) {
+                this.blackhole.consume(note);
+            }
+            this.playedNotes += notes.size();
+        }
+
+        @Override
+        protected void onSongFinished() {
+            this.finished = true;
+        }
+
+        @Override
+        protected void onTickException(final Throwable e) {
+            throw new IllegalStateException("Failed to play tick", e);
+        }
+
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.benchmark;
+
+import net.raphimc.noteblocklib.model.song.Song;
+import net.raphimc.noteblocklib.util.SongResampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class SongResamplerBenchmark {
+
+    private static final int TEMPO_RAMP_CHANGE_COUNT = 16000;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int noteCount;
+
+    @Param({"20"})
+    float newTempo;
+
+    /**
+     * Whether the song changes its tempo 16000 times instead of every 2000 ticks. Long tempo ramps are common in MIDI files.
+     */
+    @Param({"false", "true"})
+    boolean tempoRamp;
+
+    private Song song;
+    private Song workingSong;
+
+    @Setup
+    public void setup() {
+        this.song = SyntheticCorpus.createSong(this.noteCount, SyntheticCorpus.DEFAULT_SEED);
+        if (this.tempoRamp) {
+            SyntheticCorpus.setTempoRamp(this.song, TEMPO_RAMP_CHANGE_COUNT, SyntheticCorpus.DEFAULT_SEED);
+        }
+    }
+
+    /**
+     * The resampler modifies the song in place, so every invocation works on a fresh, fully unshared copy. Neither the copy nor the clone of its notes is part of the measurement.
+     */
+    @Setup(Level.Invocation)
+    public void copySong() {
+        this.workingSong = SyntheticCorpus.deepCopy(this.song);
+    }
+
+    @Benchmark
+    public Song changeTickSpeed() {
+        SongResampler.changeTickSpeed(this.workingSong, this.newTempo);
+        return this.workingSong;
+    }
+
+}
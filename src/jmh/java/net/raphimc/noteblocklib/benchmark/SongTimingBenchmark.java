@@ -0,0 +1,73 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.benchmark;
+
+import net.raphimc.noteblocklib.model.song.Song;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+
+@State(Scope.Benchmark)
+public class SongTimingBenchmark {
+
+    private static final int LOOKUP_COUNT = 4096;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int noteCount;
+
+    private Song song;
+    private int[] ticks;
+    private int[] milliseconds;
+
+    @Setup
+    public void setup() {
+        this.song = SyntheticCorpus.createSong(this.noteCount, SyntheticCorpus.DEFAULT_SEED);
+        final Random random = new Random(SyntheticCorpus.DEFAULT_SEED);
+        final int lengthInTicks = this.song.getNotes().getLengthInTicks();
+        final int lengthInMilliseconds = this.song.getLengthInMilliseconds();
+        this.ticks = new int[LOOKUP_COUNT];
+        this.milliseconds = new int[LOOKUP_COUNT];
+        for (int i = 0; i < LOOKUP_COUNT; i++) {
+            this.ticks[i] = random.nextInt(lengthInTicks + 1);
+            this.milliseconds[i] = random.nextInt(lengthInMilliseconds + 1);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUP_COUNT)
+    public void tickToMilliseconds(final Blackhole blackhole) {
+        for (int tick : this.ticks) {
+            blackhole.consume(this.song.tickToMilliseconds(tick));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUP_COUNT)
+    public void millisecondsToTick(final Blackhole blackhole) {
+        for (int millisecond : this.milliseconds) {
+            blackhole.consume(this.song.millisecondsToTick(millisecond));
+        }
+    }
+
+}
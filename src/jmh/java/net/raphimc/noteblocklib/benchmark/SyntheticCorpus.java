@@ -0,0 +1,216 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.benchmark;
+
+import net.raphimc.noteblocklib.format.midi.MidiDefinitions;
+import net.raphimc.noteblocklib.format.minecraft.MinecraftInstrument;
+import net.raphimc.noteblocklib.format.nbs.NbsConverter;
+import net.raphimc.noteblocklib.format.nbs.NbsIo;
+import net.raphimc.noteblocklib.format.nbs.model.NbsSong;
+import net.raphimc.noteblocklib.model.note.Note;
+import net.raphimc.noteblocklib.model.song.GenericSong;
+import net.raphimc.noteblocklib.model.song.Song;
+
+import javax.sound.midi.InvalidMidiDataException;
+import javax.sound.midi.MetaMessage;
+import javax.sound.midi.MidiEvent;
+import javax.sound.midi.MidiSystem;
+import javax.sound.midi.Sequence;
+import javax.sound.midi.ShortMessage;
+import javax.sound.midi.Track;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Generates deterministic synthetic songs for the benchmarks.<br>
+ * The same note count and seed always produce the same song, so results are comparable between runs and backends.
+ */
+public final class SyntheticCorpus {
+
+    public static final long DEFAULT_SEED = 0x4E42_4C69_62L;
+
+    /**
+     * The maximum song length in ticks. The notes per tick grow once this length is reached, so songs with millions of notes stay within the limits of the NBS format.
+     */
+    private static final int MAX_LENGTH_IN_TICKS = 30000;
+    private static final int MIN_NOTES_PER_TICK = 4;
+    private static final int TEMPO_CHANGE_INTERVAL = 2000;
+    private static final float[] TEMPOS = {10F, 20F, 6.75F, 15F};
+
+    private static final int MIDI_RESOLUTION = 96;
+    private static final int MIDI_TICKS_PER_STEP = 24;
+    private static final int MIDI_TRACK_COUNT = 8;
+    private static final int[] MIDI_TEMPOS = {500000, 250000, 750000, 400000}; // Microseconds per quarter note
+
+    private SyntheticCorpus() {
+    }
+
+    /**
+     * Creates a song with the given amount of notes spread over up to 30000 ticks.<br>
+     * The song uses all vanilla instruments, random keys, volumes and panning, and changes its tempo every 2000 ticks.
+     *
+     * @param noteCount The amount of notes
+     * @param seed      The random seed
+     * @return The generated song
+     */
+    public static Song createSong(final int noteCount, final long seed) {
+        final Random random = new Random(seed);
+        final MinecraftInstrument[] instruments = MinecraftInstrument.values();
+        final int notesPerTick = getNotesPerTick(noteCount);
+        final GenericSong song = new GenericSong();
+        song.setTitle("Synthetic " + noteCount);
+        song.setAuthor("NoteBlockLib");
+
+        for (int i = 0; i < noteCount; i++) {
+            final int tick = i / notesPerTick;
+            final Note note = new Note();
+            note.setGroupId(random.nextInt(8));
+            note.setInstrument(instruments[random.nextInt(instruments.length)]);
+            note.setNbsKey(33 + random.nextInt(25));
+            note.setVolume(0.25F + random.nextFloat() * 0.75F);
+            note.setPanning(random.nextFloat() * 2F - 1F);
+            song.getNotes().add(tick, note);
+        }
+
+        final int length = song.getNotes().getLengthInTicks();
+        for (int tick = 0; tick < length; tick += TEMPO_CHANGE_INTERVAL) {
+            song.getTempoEvents().set(tick, TEMPOS[(tick / TEMPO_CHANGE_INTERVAL) % TEMPOS.length]);
+        }
+        if (length == 0) {
+            song.getTempoEvents().set(0, TEMPOS[0]);
+        }
+        return song;
+    }
+
+    /**
+     * Copies the given song and unshares all notes of the copy from the original upfront.<br>
+     * {@link Song#copy()} is copy-on-write, so without this the deferred clone of every tick would be measured by the first benchmark which accesses the notes of the copy.
+     *
+     * @param song The song
+     * @return The independent copy
+     */
+    public static Song deepCopy(final Song song) {
+        final Song copySong = song.copy();
+        copySong.getNotes().forEach(note -> {
+        });
+        return copySong;
+    }
+
+    /**
+     * Replaces the tempo events of the given song with a ramp of random tempo changes spread evenly over the song, like the set-tempo events of MIDI tempo ramps.
+     *
+     * @param song             The song
+     * @param tempoChangeCount The amount of tempo changes
+     * @param seed             The random seed
+     */
+    public static void setTempoRamp(final Song song, final int tempoChangeCount, final long seed) {
+        final Random random = new Random(seed);
+        final int length = song.getNotes().getLengthInTicks();
+        song.getTempoEvents().clear();
+        for (int i = 0; i < tempoChangeCount; i++) {
+            song.getTempoEvents().set((int) ((long) i * length / tempoChangeCount), 5F + random.nextFloat() * 55F);
+        }
+    }
+
+    /**
+     * Creates a NBS song with the given amount of notes.
+     *
+     * @param noteCount The amount of notes
+     * @param seed      The random seed
+     * @return The generated NBS song
+     * @see #createSong(int, long)
+     */
+    public static NbsSong createNbsSong(final int noteCount, final long seed) {
+        return NbsConverter.createSong(createSong(noteCount, seed));
+    }
+
+    /**
+     * Creates the serialized form of a NBS song with the given amount of notes.
+     *
+     * @param noteCount The amount of notes
+     * @param seed      The random seed
+     * @return The NBS file contents
+     * @throws IOException If the song could not be written
+     * @see #createSong(int, long)
+     */
+    public static byte[] createNbsBytes(final int noteCount, final long seed) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        NbsIo.writeSong(createNbsSong(noteCount, seed), baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Creates a type 1 MIDI file with the given amount of notes spread over 8 tracks.<br>
+     * Every track plays on its own channel (The last one on the drum channel), uses a random program and contains random note lengths, velocities and pan changes.
+     * The first track additionally changes the tempo every 2000 steps.
+     *
+     * @param noteCount The amount of notes
+     * @param seed      The random seed
+     * @return The MIDI file contents
+     * @throws IOException If the sequence could not be written
+     */
+    public static byte[] createMidiBytes(final int noteCount, final long seed) throws IOException {
+        try {
+            final Random random = new Random(seed);
+            final int notesPerStep = getNotesPerTick(noteCount);
+            final Sequence sequence = new Sequence(Sequence.PPQ, MIDI_RESOLUTION);
+            final Track[] tracks = new Track[MIDI_TRACK_COUNT];
+            for (int i = 0; i < tracks.length; i++) {
+                tracks[i] = sequence.createTrack();
+                final int channel = i == tracks.length - 1 ? MidiDefinitions.PERCUSSION_CHANNEL : i;
+                tracks[i].add(new MidiEvent(new ShortMessage(ShortMessage.PROGRAM_CHANGE, channel, random.nextInt(128), 0), 0));
+            }
+
+            final int steps = (noteCount + notesPerStep - 1) / notesPerStep;
+            for (int step = 0; step < steps; step += TEMPO_CHANGE_INTERVAL) {
+                final byte[] tempo = toTempoBytes(MIDI_TEMPOS[(step / TEMPO_CHANGE_INTERVAL) % MIDI_TEMPOS.length]);
+                tracks[0].add(new MidiEvent(new MetaMessage(MidiDefinitions.META_SET_TEMPO, tempo, tempo.length), (long) step * MIDI_TICKS_PER_STEP));
+            }
+
+            for (int i = 0; i < noteCount; i++) {
+                final long midiTick = (long) (i / notesPerStep) * MIDI_TICKS_PER_STEP;
+                final int trackIndex = random.nextInt(tracks.length);
+                final int channel = trackIndex == tracks.length - 1 ? MidiDefinitions.PERCUSSION_CHANNEL : trackIndex;
+                final int key = channel == MidiDefinitions.PERCUSSION_CHANNEL ? 35 + random.nextInt(47) : 36 + random.nextInt(60);
+                final int velocity = 32 + random.nextInt(96);
+                final long duration = 1 + random.nextInt(MIDI_TICKS_PER_STEP * 4);
+                if (random.nextInt(16) == 0) {
+                    tracks[trackIndex].add(new MidiEvent(new ShortMessage(ShortMessage.CONTROL_CHANGE, channel, MidiDefinitions.CONTROL_PAN_MSB, random.nextInt(128)), midiTick));
+                }
+                tracks[trackIndex].add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_ON, channel, key, velocity), midiTick));
+                tracks[trackIndex].add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_OFF, channel, key, 0), midiTick + duration));
+            }
+
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            MidiSystem.write(sequence, 1, baos);
+            return baos.toByteArray();
+        } catch (final InvalidMidiDataException e) {
+            throw new IllegalStateException("Failed to create MIDI sequence", e);
+        }
+    }
+
+    private static int getNotesPerTick(final int noteCount) {
+        return Math.max(MIN_NOTES_PER_TICK, (noteCount + MAX_LENGTH_IN_TICKS - 1) / MAX_LENGTH_IN_TICKS);
+    }
+
+    private static byte[] toTempoBytes(final int microsecondsPerQuarterNote) {
+        return new byte[]{(byte) (microsecondsPerQuarterNote >>> 16), (byte) (microsecondsPerQuarterNote >>> 8), (byte) microsecondsPerQuarterNote};
+    }
+
+}
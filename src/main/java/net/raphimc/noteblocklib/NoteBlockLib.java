@@ -37,9 +37,21 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 public final class NoteBlockLib {
 
+    private static final int DEFAULT_MAX_IN_FLIGHT = Runtime.getRuntime().availableProcessors();
+
     private NoteBlockLib() {
     }
 
@@ -54,7 +66,84 @@ public final class NoteBlockLib {
     public static Song readSong(final Path path, final SongFormat format) throws Exception {
         final String fileName = path.getFileName().toString();
         final int dotIndex = fileName.lastIndexOf('.');
-        return readSong(Files.newInputStream(path), format, (dotIndex != -1) ? fileName.substring(0, dotIndex) : fileName);
+        final String songName = (dotIndex != -1) ? fileName.substring(0, dotIndex) : fileName;
+        if (format == SongFormat.NBS || format == SongFormat.MIDI) {
+            try {
+                if (format == SongFormat.NBS) {
+                    return NbsIo.readSong(path, songName);
+                } else {
+                    return MidiIo.readSong(path, songName);
+                }
+            } catch (final Throwable e) {
+                throw new Exception("Failed to read song", e);
+            }
+        }
+        return readSong(Files.newInputStream(path), format, songName);
+    }
+
+    public static List<SongReadResult> readSongs(final Collection<Path> paths, final Executor executor) throws InterruptedException {
+        return readSongs(paths, executor, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Reads multiple songs in parallel on the given executor.<br>
+     * Files which fail to read don't abort the other files, their exception is stored in the result instead.
+     *
+     * @param paths       The paths of the songs
+     * @param executor    The executor to read the songs on
+     * @param maxInFlight The maximum amount of files being read at the same time
+     * @return The results in the order of the input paths
+     * @throws InterruptedException If the current thread was interrupted while waiting for a result
+     */
+    public static List<SongReadResult> readSongs(final Collection<Path> paths, final Executor executor, final int maxInFlight) throws InterruptedException {
+        final SongReadResult[] results = new SongReadResult[paths.size()];
+        readSongs(paths, executor, maxInFlight, result -> results[result.getIndex()] = result);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Reads multiple songs in parallel on the given executor and passes each result to the consumer as soon as it is complete.<br>
+     * The consumer is called on the calling thread. At most maxInFlight files are read at the same time, the next file is only submitted once a result has been consumed.
+     *
+     * @param paths       The paths of the songs
+     * @param executor    The executor to read the songs on
+     * @param maxInFlight The maximum amount of files being read at the same time
+     * @param consumer    The consumer for the results (in completion order)
+     * @throws InterruptedException If the current thread was interrupted while waiting for a result
+     */
+    public static void readSongs(final Collection<Path> paths, final Executor executor, final int maxInFlight, final Consumer<SongReadResult> consumer) throws InterruptedException {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in flight must be positive");
+        }
+        final CompletionService<SongReadResult> completionService = new ExecutorCompletionService<>(executor);
+        final Iterator<Path> iterator = paths.iterator();
+        int index = 0;
+        int inFlight = 0;
+        while (iterator.hasNext() || inFlight > 0) {
+            while (iterator.hasNext() && inFlight < maxInFlight) {
+                final int pathIndex = index++;
+                final Path path = iterator.next();
+                completionService.submit(() -> {
+                    try {
+                        return new SongReadResult(pathIndex, path, readSong(path), null);
+                    } catch (final Exception e) {
+                        return new SongReadResult(pathIndex, path, null, e);
+                    }
+                });
+                inFlight++;
+            }
+
+            final Future<SongReadResult> future = completionService.take();
+            inFlight--;
+            try {
+                consumer.accept(future.get());
+            } catch (final ExecutionException e) { // Only errors can get here, exceptions are stored in the result
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new IllegalStateException("Failed to read song", e.getCause());
+            }
+        }
     }
 
     public static Song readSong(final byte[] bytes, final SongFormat format) throws Exception {
@@ -0,0 +1,71 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib;
+
+import net.raphimc.noteblocklib.model.song.Song;
+
+import java.nio.file.Path;
+
+/**
+ * The outcome of reading a single file with {@link NoteBlockLib#readSongs(java.util.Collection, java.util.concurrent.Executor)}.<br>
+ * Exactly one of song and exception is set.
+ */
+public final class SongReadResult {
+
+    private final int index;
+    private final Path path;
+    private final Song song;
+    private final Exception exception;
+
+    SongReadResult(final int index, final Path path, final Song song, final Exception exception) {
+        this.index = index;
+        this.path = path;
+        this.song = song;
+        this.exception = exception;
+    }
+
+    /**
+     * @return The index of the path in the input collection
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * @return The song or null if the file couldn't be read
+     */
+    public Song getSong() {
+        return this.song;
+    }
+
+    /**
+     * @return The exception which occurred while reading the file or null if the file was read successfully
+     */
+    public Exception getException() {
+        return this.exception;
+    }
+
+    public boolean isSuccess() {
+        return this.exception == null;
+    }
+
+}
@@ -69,7 +69,7 @@ public final class McSp2Converter {
         newSong.setTempo((int) song.getTempoEvents().get(0));
 
         for (int tick : song.getNotes().getTicks()) {
-            final List<Note> notes = song.getNotes().get(tick);
+            final List<Note> notes = song.getNotes().getReadOnly(tick);
             for (int i = 0; i < notes.size(); i++) {
                 final Note note = notes.get(i);
                 if (note.getInstrument() instanceof MinecraftInstrument && note.getVolume() > 0) {
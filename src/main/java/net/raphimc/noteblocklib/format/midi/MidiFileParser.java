@@ -0,0 +1,340 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.format.midi;
+
+import net.raphimc.noteblocklib.format.midi.model.MidiSong;
+import net.raphimc.noteblocklib.util.io.BinaryReader;
+
+import javax.sound.midi.InvalidMidiDataException;
+import javax.sound.midi.Sequence;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming parser for Standard MIDI Files.<br>
+ * Events are decoded straight from the reader into {@link MidiTrackBuffer}s, without building a {@link Sequence} or buffering the raw track data.
+ * Malformed files are handled like the parser of the Java Sound API does: Unknown chunks are skipped and a truncated last track is ignored.
+ */
+final class MidiFileParser {
+
+    private static final int HEADER_MAGIC = 0x4D546864; // MThd
+    private static final int TRACK_MAGIC = 0x4D54726B; // MTrk
+    private static final int HEADER_LENGTH = 6;
+    private static final int SKIP_BUFFER_SIZE = 8192;
+
+    private static final int STATUS_SYSTEM_EXCLUSIVE = 0xF0;
+    private static final int STATUS_SPECIAL_SYSTEM_EXCLUSIVE = 0xF7;
+    private static final int STATUS_META = 0xFF;
+    private static final int META_END_OF_TRACK = 0x2F;
+
+    private final BinaryReader reader;
+    private long position;
+    private long trackRemaining;
+
+    private MidiFileParser(final BinaryReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Parses a MIDI file track by track.
+     *
+     * @param reader                 The reader
+     * @param fileName               The file name of the song
+     * @param skipOutOfNbsRangeNotes Whether to skip notes that are out of the NBS key range
+     * @return The song
+     * @throws IOException              If an I/O error occurs
+     * @throws InvalidMidiDataException If the data is not a valid MIDI file
+     */
+    static MidiSong parse(final BinaryReader reader, final String fileName, final boolean skipOutOfNbsRangeNotes) throws IOException, InvalidMidiDataException {
+        final MidiSongBuilder builder = new MidiSongBuilder(fileName, skipOutOfNbsRangeNotes);
+        final MidiFileParser parser = new MidiFileParser(reader);
+        final int trackCount = parser.readHeader(builder);
+        for (int i = 0; i < trackCount; i++) {
+            if (!parser.nextTrack()) {
+                break;
+            }
+            final MidiTrackBuffer trackBuffer = builder.createTrackBuffer();
+            try {
+                parser.readTrack(trackBuffer);
+            } catch (final EOFException e) { // Truncated track
+                break;
+            }
+            builder.appendTrack(trackBuffer);
+        }
+        return builder.finish();
+    }
+
+    /**
+     * Parses a MIDI file from the remaining bytes of the given buffer. The tracks are located first and then decoded in parallel.
+     *
+     * @param buffer                 The buffer
+     * @param fileName               The file name of the song
+     * @param skipOutOfNbsRangeNotes Whether to skip notes that are out of the NBS key range
+     * @return The song
+     * @throws IOException              If an I/O error occurs
+     * @throws InvalidMidiDataException If the data is not a valid MIDI file
+     */
+    static MidiSong parseParallel(final ByteBuffer buffer, final String fileName, final boolean skipOutOfNbsRangeNotes) throws IOException, InvalidMidiDataException {
+        final ByteBuffer data = buffer.slice();
+        final MidiSongBuilder builder = new MidiSongBuilder(fileName, skipOutOfNbsRangeNotes);
+        final MidiFileParser parser = new MidiFileParser(new BinaryReader(data, ByteOrder.BIG_ENDIAN));
+        final int trackCount = parser.readHeader(builder);
+        final List<TrackChunk> tracks = new ArrayList<>();
+        for (int i = 0; i < trackCount; i++) {
+            if (!parser.nextTrack()) {
+                break;
+            }
+            final long length = parser.trackRemaining;
+            final int start = (int) parser.position;
+            final int available = (int) Math.min(length, data.limit() - start);
+            final ByteBuffer trackData = data.duplicate();
+            trackData.position(start).limit(start + available);
+            tracks.add(new TrackChunk(trackData.slice(), length));
+            if (parser.skipAvailable(available) != length) {
+                break; // Truncated track
+            }
+        }
+
+        builder.appendTracks(tracks, (track, trackBuffer) -> {
+            final MidiFileParser trackParser = new MidiFileParser(new BinaryReader(track.data, ByteOrder.BIG_ENDIAN));
+            trackParser.trackRemaining = track.length;
+            trackParser.readTrack(trackBuffer);
+        }, true);
+        return builder.finish();
+    }
+
+    private int readHeader(final MidiSongBuilder builder) throws IOException, InvalidMidiDataException {
+        if (this.readChunkInt() != HEADER_MAGIC) {
+            throw new InvalidMidiDataException("not a valid MIDI file");
+        }
+        final int headerLength = this.readChunkInt();
+        final int type = this.reader.readShort();
+        final int trackCount = this.reader.readShort();
+        final int timing = this.reader.readShort();
+        this.position += HEADER_LENGTH;
+        if (headerLength > HEADER_LENGTH) {
+            this.skipAvailable(headerLength - HEADER_LENGTH);
+        }
+        if (type != 0 && type != 1) {
+            throw new InvalidMidiDataException("Invalid or unsupported file type: " + type);
+        }
+
+        if (timing > 0) {
+            builder.setTiming(Sequence.PPQ, timing);
+        } else {
+            final int frameCode = -1 * (timing >> 8);
+            final float divisionType;
+            switch (frameCode) {
+                case 24:
+                    divisionType = Sequence.SMPTE_24;
+                    break;
+                case 25:
+                    divisionType = Sequence.SMPTE_25;
+                    break;
+                case 29:
+                    divisionType = Sequence.SMPTE_30DROP;
+                    break;
+                case 30:
+                    divisionType = Sequence.SMPTE_30;
+                    break;
+                default:
+                    throw new InvalidMidiDataException("Unknown frame code: " + frameCode);
+            }
+            builder.setTiming(divisionType, timing & 0xFF);
+        }
+        return trackCount;
+    }
+
+    private boolean nextTrack() throws IOException {
+        int magic;
+        int length = 0;
+        do {
+            if (length < 0 || this.skipAvailable(length) != length) {
+                return false;
+            }
+            magic = this.readChunkInt();
+            length = this.readChunkInt();
+        } while (magic != TRACK_MAGIC);
+        this.trackRemaining = length;
+        return length >= 0;
+    }
+
+    private void readTrack(final MidiTrackBuffer trackBuffer) throws IOException, InvalidMidiDataException {
+        long tick = 0;
+        int status = 0;
+        while (this.trackRemaining > 0) {
+            tick += this.readVarInt();
+            if (tick > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("MIDI sequence has too many ticks");
+            }
+
+            int data1 = -1;
+            final int value = this.readUnsignedByte();
+            if (value >= 0x80) {
+                status = value;
+            } else { // Running status
+                data1 = value;
+            }
+
+            switch (status & 0xF0) {
+                case 0x80:
+                case 0x90:
+                case 0xA0:
+                case 0xB0:
+                case 0xE0:
+                    if (data1 == -1) {
+                        data1 = this.readUnsignedByte();
+                    }
+                    trackBuffer.handleShortMessage((int) tick, status & 0xF0, status & 0x0F, data1, this.readUnsignedByte());
+                    break;
+                case 0xC0:
+                case 0xD0:
+                    if (data1 == -1) {
+                        data1 = this.readUnsignedByte();
+                    }
+                    trackBuffer.handleShortMessage((int) tick, status & 0xF0, status & 0x0F, data1, 0);
+                    break;
+                case 0xF0:
+                    switch (status) {
+                        case STATUS_SYSTEM_EXCLUSIVE:
+                        case STATUS_SPECIAL_SYSTEM_EXCLUSIVE: {
+                            final int length = this.readMessageLength();
+                            if (MidiSongBuilder.isSysexMessageUsed(status, length)) {
+                                trackBuffer.handleSysexMessage(status, this.readBytes(length));
+                            } else {
+                                this.skipBytes(length);
+                            }
+                            break;
+                        }
+                        case STATUS_META: {
+                            final int type = this.readUnsignedByte();
+                            final int length = this.readMessageLength();
+                            if (MidiSongBuilder.isMetaMessageUsed(type)) {
+                                trackBuffer.handleMetaMessage((int) tick, type, this.readBytes(length));
+                            } else {
+                                this.skipBytes(length);
+                            }
+                            if (type == META_END_OF_TRACK) {
+                                this.skipBytes(this.trackRemaining);
+                                return;
+                            }
+                            break;
+                        }
+                        default:
+                            throw new InvalidMidiDataException("Invalid status byte: " + status);
+                    }
+                    break;
+                default:
+                    throw new InvalidMidiDataException("Invalid status byte: " + status);
+            }
+        }
+    }
+
+    private int readChunkInt() throws IOException {
+        try {
+            final int value = this.reader.readInt();
+            this.position += Integer.BYTES;
+            return value;
+        } catch (final EOFException e) {
+            throw new EOFException("invalid MIDI file");
+        }
+    }
+
+    private int readUnsignedByte() throws IOException, InvalidMidiDataException {
+        if (this.trackRemaining <= 0) {
+            throw new InvalidMidiDataException("Event exceeds the track length");
+        }
+        this.trackRemaining--;
+        this.position++;
+        return this.reader.readUnsignedByte();
+    }
+
+    private long readVarInt() throws IOException, InvalidMidiDataException {
+        long value = 0;
+        int b;
+        do {
+            b = this.readUnsignedByte();
+            value = (value << 7) + (b & 0x7F);
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private int readMessageLength() throws IOException, InvalidMidiDataException {
+        final int length = (int) this.readVarInt();
+        if (length < 0 || length > this.trackRemaining) {
+            throw new InvalidMidiDataException("Message length is out of bounds: " + length);
+        }
+        return length;
+    }
+
+    private byte[] readBytes(final int length) throws IOException {
+        this.trackRemaining -= length;
+        this.position += length;
+        return this.reader.readBytes(length);
+    }
+
+    private void skipBytes(final long length) throws IOException {
+        this.trackRemaining -= length;
+        this.position += length;
+        long remaining = length;
+        while (remaining > 0) {
+            final int chunk = (int) Math.min(remaining, Integer.MAX_VALUE);
+            this.reader.skipBytes(chunk);
+            remaining -= chunk;
+        }
+    }
+
+    /**
+     * Skips up to the given amount of bytes outside of a track.
+     *
+     * @param length The amount of bytes to skip
+     * @return The amount of bytes skipped
+     * @throws IOException If an I/O error occurs
+     */
+    private long skipAvailable(final long length) throws IOException {
+        long skipped = 0;
+        while (skipped < length && this.reader.hasRemaining()) {
+            final int chunk = (int) Math.min(length - skipped, SKIP_BUFFER_SIZE);
+            try {
+                this.reader.skipBytes(chunk);
+                skipped += chunk;
+            } catch (final EOFException ignored) {
+                break;
+            }
+        }
+        this.position += skipped;
+        return skipped;
+    }
+
+    private static final class TrackChunk {
+
+        private final ByteBuffer data;
+        private final long length;
+
+        private TrackChunk(final ByteBuffer data, final long length) {
+            this.data = data;
+            this.length = length;
+        }
+
+    }
+
+}
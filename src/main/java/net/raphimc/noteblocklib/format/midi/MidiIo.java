@@ -18,15 +18,21 @@
 package net.raphimc.noteblocklib.format.midi;
 
 import net.raphimc.noteblocklib.format.midi.model.MidiSong;
+import net.raphimc.noteblocklib.util.io.BinaryReader;
+import net.raphimc.noteblocklib.util.io.IoUtil;
 
 import javax.sound.midi.InvalidMidiDataException;
-import javax.sound.midi.MidiSystem;
 import javax.sound.midi.Sequence;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
 
 public final class MidiIo {
 
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
     private MidiIo() {
     }
 
@@ -34,8 +40,95 @@ public final class MidiIo {
         return readSong(is, fileName, true);
     }
 
+    /**
+     * Reads a MIDI song from the given stream.<br>
+     * The MIDI file is parsed while it is read, without building a {@link Sequence} of all events first.
+     *
+     * @param is                  The input stream
+     * @param fileName            The file name of the song
+     * @param skipOutOfRangeNotes Whether to skip notes that are out of the NBS key range
+     * @return The song
+     * @throws IOException              If an I/O error occurs
+     * @throws InvalidMidiDataException If the data is not a valid MIDI file
+     */
     public static MidiSong readSong(final InputStream is, final String fileName, final boolean skipOutOfRangeNotes) throws IOException, InvalidMidiDataException {
-        return MidiConverter.createSong(MidiSystem.getSequence(is), fileName, skipOutOfRangeNotes);
+        return MidiFileParser.parse(new BinaryReader(is, ByteOrder.BIG_ENDIAN, BUFFER_SIZE), fileName, skipOutOfRangeNotes);
+    }
+
+    public static MidiSong readSong(final ByteBuffer buffer, final String fileName) throws IOException, InvalidMidiDataException {
+        return readSong(buffer, fileName, true);
+    }
+
+    /**
+     * Reads a MIDI song directly from the remaining bytes of the given buffer (e.g. a heap buffer or a memory-mapped file).<br>
+     * The position of the buffer is not modified.
+     *
+     * @param buffer              The buffer
+     * @param fileName            The file name of the song
+     * @param skipOutOfRangeNotes Whether to skip notes that are out of the NBS key range
+     * @return The song
+     * @throws IOException              If the data is truncated
+     * @throws InvalidMidiDataException If the data is not a valid MIDI file
+     */
+    public static MidiSong readSong(final ByteBuffer buffer, final String fileName, final boolean skipOutOfRangeNotes) throws IOException, InvalidMidiDataException {
+        return readSong(buffer, fileName, skipOutOfRangeNotes, false);
+    }
+
+    /**
+     * Reads a MIDI song directly from the remaining bytes of the given buffer (e.g. a heap buffer or a memory-mapped file).<br>
+     * If parallel reading is enabled, the tracks are decoded on the common fork-join pool and merged in order afterwards. The resulting song is the same in both modes.
+     * The position of the buffer is not modified.
+     *
+     * @param buffer              The buffer
+     * @param fileName            The file name of the song
+     * @param skipOutOfRangeNotes Whether to skip notes that are out of the NBS key range
+     * @param parallel            Whether to decode the tracks in parallel
+     * @return The song
+     * @throws IOException              If the data is truncated
+     * @throws InvalidMidiDataException If the data is not a valid MIDI file
+     */
+    public static MidiSong readSong(final ByteBuffer buffer, final String fileName, final boolean skipOutOfRangeNotes, final boolean parallel) throws IOException, InvalidMidiDataException {
+        if (parallel) {
+            return MidiFileParser.parseParallel(buffer, fileName, skipOutOfRangeNotes);
+        } else {
+            return MidiFileParser.parse(new BinaryReader(buffer, ByteOrder.BIG_ENDIAN), fileName, skipOutOfRangeNotes);
+        }
+    }
+
+    public static MidiSong readSong(final Path path, final String fileName) throws IOException, InvalidMidiDataException {
+        return readSong(path, fileName, true);
+    }
+
+    /**
+     * Reads a MIDI song from the given file.<br>
+     * Large files are memory-mapped, small files are read into a heap buffer at once.
+     *
+     * @param path                The path of the file
+     * @param fileName            The file name of the song
+     * @param skipOutOfRangeNotes Whether to skip notes that are out of the NBS key range
+     * @return The song
+     * @throws IOException              If an I/O error occurs
+     * @throws InvalidMidiDataException If the data is not a valid MIDI file
+     */
+    public static MidiSong readSong(final Path path, final String fileName, final boolean skipOutOfRangeNotes) throws IOException, InvalidMidiDataException {
+        return readSong(path, fileName, skipOutOfRangeNotes, false);
+    }
+
+    /**
+     * Reads a MIDI song from the given file.<br>
+     * Large files are memory-mapped, small files are read into a heap buffer at once.
+     *
+     * @param path                The path of the file
+     * @param fileName            The file name of the song
+     * @param skipOutOfRangeNotes Whether to skip notes that are out of the NBS key range
+     * @param parallel            Whether to decode the tracks in parallel
+     * @return The song
+     * @throws IOException              If an I/O error occurs
+     * @throws InvalidMidiDataException If the data is not a valid MIDI file
+     * @see #readSong(ByteBuffer, String, boolean, boolean)
+     */
+    public static MidiSong readSong(final Path path, final String fileName, final boolean skipOutOfRangeNotes, final boolean parallel) throws IOException, InvalidMidiDataException {
+        return readSong(IoUtil.readFile(path), fileName, skipOutOfRangeNotes, parallel);
     }
 
     @Deprecated
@@ -0,0 +1,292 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.format.midi;
+
+import net.raphimc.noteblocklib.format.midi.mapping.InstrumentMapping;
+import net.raphimc.noteblocklib.format.midi.mapping.MidiMappings;
+import net.raphimc.noteblocklib.format.midi.mapping.PercussionMapping;
+import net.raphimc.noteblocklib.format.midi.model.MidiSong;
+import net.raphimc.noteblocklib.format.nbs.NbsDefinitions;
+import net.raphimc.noteblocklib.model.note.Note;
+import net.raphimc.noteblocklib.util.MathUtil;
+import net.raphimc.noteblocklib.util.SongResampler;
+
+import javax.sound.midi.InvalidMidiDataException;
+import javax.sound.midi.Sequence;
+import javax.sound.midi.SysexMessage;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static net.raphimc.noteblocklib.format.midi.MidiDefinitions.*;
+
+/**
+ * Builds a MIDI song from the buffered MIDI tracks. Tracks have to be appended in the order they appear in the file.<br>
+ * Used by both the {@link Sequence} based conversion and the streaming MIDI file parser, so both produce the same song.
+ */
+final class MidiSongBuilder {
+
+    private final MidiSong song;
+    private final boolean skipOutOfNbsRangeNotes;
+    private final int[] channelInstruments = new int[CHANNEL_COUNT];
+    private final int[] channelVolumes = new int[CHANNEL_COUNT];
+    private final int[] channelPans = new int[CHANNEL_COUNT];
+    private final int[] channelExpressions = new int[CHANNEL_COUNT];
+    private float divisionType;
+    private int resolution;
+
+    MidiSongBuilder(final String fileName, final boolean skipOutOfNbsRangeNotes) {
+        this.song = new MidiSong(fileName);
+        this.skipOutOfNbsRangeNotes = skipOutOfNbsRangeNotes;
+        Arrays.fill(this.channelVolumes, DEFAULT_VOLUME);
+        Arrays.fill(this.channelPans, CENTER_PAN);
+        Arrays.fill(this.channelExpressions, Byte.MAX_VALUE);
+    }
+
+    /**
+     * @param type The meta message type
+     * @return Whether the data of meta messages with the given type is used. The data of other meta messages can be skipped.
+     */
+    static boolean isMetaMessageUsed(final int type) {
+        return type == META_SET_TEMPO || type == META_TEXT || type == META_COPYRIGHT_NOTICE || type == META_TRACK_NAME;
+    }
+
+    /**
+     * @param status The status byte of the system exclusive message
+     * @param length The length of the data
+     * @return Whether the data of the system exclusive message is used. The data of other system exclusive messages can be skipped.
+     */
+    static boolean isSysexMessageUsed(final int status, final int length) {
+        return status == SysexMessage.SYSTEM_EXCLUSIVE && length == 4;
+    }
+
+    /**
+     * Creates a note from a note on message and the state of its channel.
+     *
+     * @return The note or null if the note should be skipped
+     */
+    static Note createNote(final int channel, final int data1, final int data2, final int instrument, final int volume, final int pan, final int expression, final boolean skipOutOfNbsRangeNotes) {
+        final int key = MathUtil.clamp(data1, LOWEST_KEY, HIGHEST_KEY);
+        final int velocity = MathUtil.clamp(data2, 0, MAX_VELOCITY);
+
+        final Note note = new Note();
+        if (channel == PERCUSSION_CHANNEL) {
+            final PercussionMapping mapping = MidiMappings.PERCUSSION_MAPPINGS[key];
+            if (mapping == null) {
+                return null;
+            }
+
+            note.setInstrument(mapping.getInstrument());
+            note.setNbsKey(mapping.getNbsKey());
+        } else {
+            final InstrumentMapping mapping = MidiMappings.INSTRUMENT_MAPPINGS[instrument];
+            if (mapping == null) {
+                return null;
+            }
+
+            note.setInstrument(mapping.getInstrument());
+            note.setMidiKey(MathUtil.clamp(key + KEYS_PER_OCTAVE * mapping.getOctaveModifier(), LOWEST_KEY, HIGHEST_KEY));
+        }
+        if (skipOutOfNbsRangeNotes && (note.getMidiKey() < NbsDefinitions.LOWEST_MIDI_KEY || note.getMidiKey() > NbsDefinitions.HIGHEST_MIDI_KEY)) {
+            return null;
+        }
+        note.setVolume(((float) velocity / MAX_VELOCITY) * ((float) volume / MAX_VELOCITY) * ((float) expression / MAX_VELOCITY));
+        if (pan < CENTER_PAN) { // 0-63 (64 values) -> left
+            note.setPanning((float) (pan - CENTER_PAN) / CENTER_PAN);
+        } else if (pan > CENTER_PAN) { // 65-127 (63 values) -> right
+            note.setPanning((float) (pan - CENTER_PAN) / (Byte.MAX_VALUE - CENTER_PAN));
+        }
+        return note;
+    }
+
+    void setTiming(final float divisionType, final int resolution) {
+        this.divisionType = divisionType;
+        this.resolution = resolution;
+        if (divisionType == Sequence.PPQ) {
+            this.song.getTempoEvents().set(0, (float) (1_000_000D / ((double) DEFAULT_TEMPO_MPQ / resolution)));
+        } else {
+            this.song.getTempoEvents().set(0, resolution * divisionType);
+        }
+    }
+
+    /**
+     * Creates a buffer for the next track which starts with the current channel state.
+     *
+     * @return The track buffer
+     */
+    MidiTrackBuffer createTrackBuffer() {
+        final MidiTrackBuffer track = this.createDetachedTrackBuffer();
+        System.arraycopy(this.channelInstruments, 0, track.channelInstruments, 0, CHANNEL_COUNT);
+        System.arraycopy(this.channelVolumes, 0, track.channelVolumes, 0, CHANNEL_COUNT);
+        System.arraycopy(this.channelPans, 0, track.channelPans, 0, CHANNEL_COUNT);
+        System.arraycopy(this.channelExpressions, 0, track.channelExpressions, 0, CHANNEL_COUNT);
+        return track;
+    }
+
+    /**
+     * Creates a buffer for a track whose starting channel state is not known yet.
+     *
+     * @return The track buffer
+     */
+    MidiTrackBuffer createDetachedTrackBuffer() {
+        return new MidiTrackBuffer(this.skipOutOfNbsRangeNotes, this.divisionType, this.resolution);
+    }
+
+    /**
+     * Appends the given track to the song and applies its channel state changes.
+     *
+     * @param track The track buffer
+     */
+    void appendTrack(final MidiTrackBuffer track) {
+        for (int i = 0; i < track.noteCount; i++) {
+            final Object bufferedNote = track.notes[i];
+            final Note note;
+            if (bufferedNote instanceof MidiTrackBuffer.PendingNote) {
+                final MidiTrackBuffer.PendingNote pendingNote = (MidiTrackBuffer.PendingNote) bufferedNote;
+                final int channel = pendingNote.channel;
+                note = createNote(
+                    channel,
+                    pendingNote.key,
+                    pendingNote.velocity,
+                    this.resolve(pendingNote.instrument, this.channelInstruments[channel]),
+                    this.resolve(pendingNote.volume, this.channelVolumes[channel]),
+                    this.resolve(pendingNote.pan, this.channelPans[channel]),
+                    this.resolve(pendingNote.expression, this.channelExpressions[channel]),
+                    this.skipOutOfNbsRangeNotes
+                );
+                if (note == null) {
+                    continue;
+                }
+            } else {
+                note = (Note) bufferedNote;
+            }
+            this.song.getNotes().add(track.noteTicks[i], note);
+        }
+        for (MidiTrackBuffer.TempoChange tempoChange : track.tempoChanges) {
+            this.song.getTempoEvents().set(tempoChange.tick, tempoChange.tempo);
+        }
+        for (String description : track.descriptions) {
+            if (this.song.getDescription() == null) {
+                this.song.setDescription(description);
+            } else {
+                this.song.setDescription(this.song.getDescription() + "\n" + description);
+            }
+        }
+        for (int channel = 0; channel < CHANNEL_COUNT; channel++) {
+            this.channelInstruments[channel] = this.resolve(track.channelInstruments[channel], this.channelInstruments[channel]);
+            this.channelVolumes[channel] = this.resolve(track.channelVolumes[channel], this.channelVolumes[channel]);
+            this.channelPans[channel] = this.resolve(track.channelPans[channel], this.channelPans[channel]);
+            this.channelExpressions[channel] = this.resolve(track.channelExpressions[channel], this.channelExpressions[channel]);
+        }
+    }
+
+    /**
+     * Decodes the given tracks and appends them to the song in order.<br>
+     * If parallel decoding is enabled, the tracks are decoded on the common fork-join pool with detached track buffers and merged afterwards. The resulting song is the same in both modes.
+     * A track which ends with an {@link EOFException} is treated as truncated: It and the remaining tracks are ignored.
+     *
+     * @param tracks   The tracks
+     * @param decoder  The decoder which decodes a track into a track buffer
+     * @param parallel Whether to decode the tracks in parallel
+     * @param <T>      The track type
+     * @throws IOException              If an I/O error occurs
+     * @throws InvalidMidiDataException If a track contains invalid MIDI data
+     */
+    <T> void appendTracks(final List<T> tracks, final TrackDecoder<T> decoder, final boolean parallel) throws IOException, InvalidMidiDataException {
+        if (!parallel || tracks.size() <= 1) {
+            for (T track : tracks) {
+                final MidiTrackBuffer trackBuffer = this.createTrackBuffer();
+                try {
+                    decoder.decode(track, trackBuffer);
+                } catch (final EOFException e) {
+                    return;
+                }
+                this.appendTrack(trackBuffer);
+            }
+            return;
+        }
+
+        final List<MidiTrackBuffer> trackBuffers = tracks.stream().map(track -> this.createDetachedTrackBuffer()).collect(Collectors.toList());
+        final Throwable[] exceptions = new Throwable[tracks.size()];
+        IntStream.range(0, tracks.size()).parallel().forEach(i -> {
+            try {
+                decoder.decode(tracks.get(i), trackBuffers.get(i));
+            } catch (final Throwable e) {
+                exceptions[i] = e;
+            }
+        });
+        for (int i = 0; i < tracks.size(); i++) {
+            final Throwable exception = exceptions[i];
+            if (exception instanceof EOFException) {
+                return;
+            } else if (exception instanceof IOException) {
+                throw (IOException) exception;
+            } else if (exception instanceof InvalidMidiDataException) {
+                throw (InvalidMidiDataException) exception;
+            } else if (exception instanceof RuntimeException) {
+                throw (RuntimeException) exception;
+            } else if (exception instanceof Error) {
+                throw (Error) exception;
+            }
+            this.appendTrack(trackBuffers.get(i));
+        }
+    }
+
+    /**
+     * Finishes the song. Resamples it if its tempo is higher than the target tempo.
+     *
+     * @return The finished song
+     */
+    MidiSong finish() {
+        if (this.song.getTempoEvents().getTempoRange()[1] > SONG_TARGET_TEMPO) {
+            final double[] timeSpaces = OnsetGapHistogram.getTimeSpaceQuantiles(this.song);
+            if (timeSpaces != null) {
+                final float minTimeSpace = (float) timeSpaces[0];
+                final float p05TimeSpace = (float) timeSpaces[1];
+                final float p10TimeSpace = (float) timeSpaces[2];
+                final float[] candidateTempos = new float[]{1000F / minTimeSpace, 1000F / p05TimeSpace, 1000F / p10TimeSpace};
+                for (float candidateTempo : candidateTempos) {
+                    if (candidateTempo <= SONG_TARGET_TEMPO) {
+                        SongResampler.changeTickSpeed(this.song, candidateTempo);
+                        break;
+                    }
+                }
+            }
+            if (this.song.getTempoEvents().getTempoRange()[1] > SONG_TARGET_TEMPO) {
+                SongResampler.changeTickSpeed(this.song, SONG_TARGET_TEMPO);
+            }
+        }
+
+        return this.song;
+    }
+
+    private int resolve(final int trackValue, final int inheritedValue) {
+        return trackValue != MidiTrackBuffer.INHERITED ? trackValue : inheritedValue;
+    }
+
+    @FunctionalInterface
+    interface TrackDecoder<T> {
+
+        void decode(final T track, final MidiTrackBuffer trackBuffer) throws IOException, InvalidMidiDataException;
+
+    }
+
+}
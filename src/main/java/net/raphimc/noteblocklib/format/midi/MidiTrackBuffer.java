@@ -0,0 +1,213 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.format.midi;
+
+import net.raphimc.noteblocklib.model.note.Note;
+import net.raphimc.noteblocklib.util.MathUtil;
+
+import javax.sound.midi.Sequence;
+import javax.sound.midi.SysexMessage;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static javax.sound.midi.ShortMessage.*;
+import static net.raphimc.noteblocklib.format.midi.MidiDefinitions.*;
+
+/**
+ * Buffers the decoded notes, tempo changes, texts and channel state changes of a single MIDI track until it is appended to a {@link MidiSongBuilder}.<br>
+ * A buffer can be detached from the channel state the track starts with. In that case channel values which haven't been set within the track yet are unknown,
+ * and notes depending on them are resolved once the buffer is appended. This allows decoding the tracks of a song in parallel while still producing the same song as decoding them one after another.
+ */
+final class MidiTrackBuffer {
+
+    static final int INHERITED = -1;
+
+    final int[] channelInstruments = new int[CHANNEL_COUNT];
+    final int[] channelVolumes = new int[CHANNEL_COUNT];
+    final int[] channelPans = new int[CHANNEL_COUNT];
+    final int[] channelExpressions = new int[CHANNEL_COUNT];
+    final List<TempoChange> tempoChanges = new ArrayList<>();
+    final List<String> descriptions = new ArrayList<>();
+    int[] noteTicks = new int[16];
+    Object[] notes = new Object[16];
+    int noteCount;
+
+    private final boolean skipOutOfNbsRangeNotes;
+    private final float divisionType;
+    private final int resolution;
+
+    MidiTrackBuffer(final boolean skipOutOfNbsRangeNotes, final float divisionType, final int resolution) {
+        this.skipOutOfNbsRangeNotes = skipOutOfNbsRangeNotes;
+        this.divisionType = divisionType;
+        this.resolution = resolution;
+        Arrays.fill(this.channelInstruments, INHERITED);
+        Arrays.fill(this.channelVolumes, INHERITED);
+        Arrays.fill(this.channelPans, INHERITED);
+        Arrays.fill(this.channelExpressions, INHERITED);
+    }
+
+    void handleShortMessage(final int tick, final int command, final int channel, final int data1, final int data2) {
+        switch (command) {
+            case NOTE_ON:
+                final int instrument = this.channelInstruments[channel];
+                final int volume = this.channelVolumes[channel];
+                final int pan = this.channelPans[channel];
+                final int expression = this.channelExpressions[channel];
+                if ((instrument == INHERITED && channel != PERCUSSION_CHANNEL) || volume == INHERITED || pan == INHERITED || expression == INHERITED) {
+                    this.addNote(tick, new PendingNote(channel, data1, data2, instrument, volume, pan, expression));
+                } else {
+                    final Note note = MidiSongBuilder.createNote(channel, data1, data2, instrument, volume, pan, expression, this.skipOutOfNbsRangeNotes);
+                    if (note != null) {
+                        this.addNote(tick, note);
+                    }
+                }
+                break;
+            case NOTE_OFF:
+                // Ignore note off events
+                break;
+            case PROGRAM_CHANGE:
+                this.channelInstruments[channel] = Math.max((byte) data1, 0);
+                break;
+            case CONTROL_CHANGE:
+                switch (data1) {
+                    case CONTROL_CHANNEL_VOLUME_MSB:
+                        this.channelVolumes[channel] = MathUtil.clamp(data2, 0, MAX_VELOCITY);
+                        break;
+                    case CONTROL_PAN_MSB:
+                        this.channelPans[channel] = MathUtil.clamp(data2, 0, Byte.MAX_VALUE);
+                        break;
+                    case CONTROL_EXPRESSION_CONTROLLER_MSB:
+                        this.channelExpressions[channel] = MathUtil.clamp(data2, 0, Byte.MAX_VALUE);
+                        break;
+                    case CONTROL_RESET_ALL_CONTROLLERS:
+                        // Most MIDI synths don't reset volume and pan
+                        this.channelExpressions[channel] = Byte.MAX_VALUE;
+                        break;
+                }
+                break;
+            case PITCH_BEND:
+                // Ignore pitch bend events
+                break;
+            case CHANNEL_PRESSURE:
+                // Ignore channel pressure events
+                break;
+            case POLY_PRESSURE:
+                // Ignore poly pressure events
+                break;
+            default:
+                throw new IllegalStateException("Unsupported MIDI command: " + command);
+        }
+    }
+
+    void handleMetaMessage(final int tick, final int type, final byte[] data) {
+        switch (type) {
+            case META_SET_TEMPO:
+                if (data.length == 3 && this.divisionType == Sequence.PPQ) {
+                    final int newMpq = ((data[0] & 0xFF) << 16) | ((data[1] & 0xFF) << 8) | (data[2] & 0xFF);
+                    final double microsPerTick = (double) newMpq / this.resolution;
+                    this.tempoChanges.add(new TempoChange(tick, (float) (1_000_000D / microsPerTick)));
+                }
+                break;
+            case META_TEXT:
+                this.addDescription("Text: ", data);
+                break;
+            case META_COPYRIGHT_NOTICE:
+                this.addDescription("Copyright: ", data);
+                break;
+            case META_TRACK_NAME:
+                this.addDescription("Track Name: ", data);
+                break;
+        }
+    }
+
+    void handleSysexMessage(final int status, final byte[] data) {
+        if (status == SysexMessage.SYSTEM_EXCLUSIVE) {
+            if (data.length == 4 && (data[0] & 0xFF) == SYSEX_UNIVERSAL_NON_REALTIME_MESSAGE && (data[1] & 0xFF) == SYSEX_DEVICE_ALL && (data[2] & 0xFF) == SYSEX_SUB_ID_GENERAL_MIDI) {
+                final int subId2 = data[3] & 0xFF;
+                if (subId2 == SYSEX_GENERAL_MIDI_GM1_SYSTEM_ON || subId2 == SYSEX_GENERAL_MIDI_GM2_SYSTEM_ON) {
+                    Arrays.fill(this.channelInstruments, 0);
+                    Arrays.fill(this.channelVolumes, DEFAULT_VOLUME);
+                    Arrays.fill(this.channelPans, CENTER_PAN);
+                    Arrays.fill(this.channelExpressions, Byte.MAX_VALUE);
+                }
+            }
+        }
+    }
+
+    private void addNote(final int tick, final Object note) {
+        if (this.noteCount == this.notes.length) {
+            this.noteTicks = Arrays.copyOf(this.noteTicks, this.noteCount * 2);
+            this.notes = Arrays.copyOf(this.notes, this.noteCount * 2);
+        }
+        this.noteTicks[this.noteCount] = tick;
+        this.notes[this.noteCount] = note;
+        this.noteCount++;
+    }
+
+    private void addDescription(final String prefix, final byte[] data) {
+        final String text = Arrays.stream(new String(data, StandardCharsets.US_ASCII).split("\n"))
+            .map(String::trim)
+            .filter(line -> !line.isEmpty())
+            .map(line -> prefix + line)
+            .collect(Collectors.joining("\n"));
+        if (!text.isEmpty()) {
+            this.descriptions.add(text);
+        }
+    }
+
+    /**
+     * A note which depends on channel values that were set before the track started.
+     */
+    static final class PendingNote {
+
+        final int channel;
+        final int key;
+        final int velocity;
+        final int instrument;
+        final int volume;
+        final int pan;
+        final int expression;
+
+        PendingNote(final int channel, final int key, final int velocity, final int instrument, final int volume, final int pan, final int expression) {
+            this.channel = channel;
+            this.key = key;
+            this.velocity = velocity;
+            this.instrument = instrument;
+            this.volume = volume;
+            this.pan = pan;
+            this.expression = expression;
+        }
+
+    }
+
+    static final class TempoChange {
+
+        final int tick;
+        final float tempo;
+
+        TempoChange(final int tick, final float tempo) {
+            this.tick = tick;
+            this.tempo = tempo;
+        }
+
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.format.midi;
+
+import net.raphimc.noteblocklib.model.event.TempoEvents;
+import net.raphimc.noteblocklib.model.song.Song;
+import net.raphimc.noteblocklib.util.SongResampler;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Set;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Histogram of the time spaces between consecutive note onsets of a song.<br>
+ * The time spaces are computed the same way as {@link SongResampler#getNotesByTime(Song)} does, but without grouping the notes or sorting all times and time spaces.
+ * The histogram uses logarithmic buckets (32 per power of two). Quantiles are located by their bucket in a first pass and resolved exactly in a second pass which only keeps the time spaces of that bucket.
+ */
+final class OnsetGapHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int MIN_EXPONENT = -20;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - MIN_EXPONENT) << SUB_BUCKET_BITS;
+    private static final long FIRST_BUCKET_KEY = (long) (Double.MAX_EXPONENT + MIN_EXPONENT) << SUB_BUCKET_BITS;
+    private static final int MAX_BIT_SET_TICKS_PER_NOTE_TICK = 64;
+
+    private final int[] counts = new int[BUCKET_COUNT];
+    private final double[] minimums = new double[BUCKET_COUNT];
+    private final double[] maximums = new double[BUCKET_COUNT];
+    private int count;
+
+    private OnsetGapHistogram() {
+    }
+
+    /**
+     * Computes the minimum, 5th percentile and 10th percentile of the time spaces between consecutive note onsets in milliseconds.<br>
+     * The results are the same as indexing the sorted array of all time spaces at 0, length / 20 and length / 10.
+     *
+     * @param song The song
+     * @return A double[] with the 3 time spaces or null if the song has less than 2 note onsets
+     */
+    static double[] getTimeSpaceQuantiles(final Song song) {
+        final int[] noteTicks = getSortedNoteTicks(song);
+        final OnsetGapHistogram histogram = new OnsetGapHistogram();
+        forEachTimeSpace(noteTicks, song.getTempoEvents(), histogram::add);
+        if (histogram.count == 0) {
+            return null;
+        }
+
+        final int[] ranks = new int[]{0, histogram.count / 20, histogram.count / 10};
+        final double[] quantiles = new double[ranks.length];
+        final int[] buckets = new int[ranks.length];
+        final int[] bucketRanks = new int[ranks.length];
+        boolean needsSecondPass = false;
+        for (int i = 0; i < ranks.length; i++) {
+            int bucket = 0;
+            int rank = ranks[i];
+            while (rank >= histogram.counts[bucket]) {
+                rank -= histogram.counts[bucket];
+                bucket++;
+            }
+            buckets[i] = bucket;
+            bucketRanks[i] = rank;
+            if (histogram.minimums[bucket] == histogram.maximums[bucket]) {
+                quantiles[i] = histogram.minimums[bucket];
+            } else {
+                quantiles[i] = Double.NaN;
+                needsSecondPass = true;
+            }
+        }
+
+        if (needsSecondPass) {
+            final double[][] bucketValues = new double[BUCKET_COUNT][];
+            final int[] bucketSizes = new int[BUCKET_COUNT];
+            for (int i = 0; i < ranks.length; i++) {
+                if (Double.isNaN(quantiles[i])) {
+                    bucketValues[buckets[i]] = new double[histogram.counts[buckets[i]]];
+                }
+            }
+            forEachTimeSpace(noteTicks, song.getTempoEvents(), timeSpace -> {
+                final int bucket = getBucket(timeSpace);
+                if (bucketValues[bucket] != null) {
+                    bucketValues[bucket][bucketSizes[bucket]++] = timeSpace;
+                }
+            });
+            for (int i = 0; i < ranks.length; i++) {
+                if (Double.isNaN(quantiles[i])) {
+                    final double[] values = bucketValues[buckets[i]];
+                    Arrays.sort(values);
+                    quantiles[i] = values[bucketRanks[i]];
+                }
+            }
+        }
+        return quantiles;
+    }
+
+    private static int[] getSortedNoteTicks(final Song song) {
+        final Set<Integer> ticks = song.getNotes().getTicks();
+        final int lastTick = song.getNotes().getLastTick();
+        if (lastTick / MAX_BIT_SET_TICKS_PER_NOTE_TICK <= ticks.size()) {
+            final BitSet bitSet = new BitSet(lastTick + 1);
+            for (int tick : ticks) {
+                bitSet.set(tick);
+            }
+            return bitSet.stream().toArray();
+        } else { // Very sparse song, sorting is cheaper than a bit set covering all ticks
+            return ticks.stream().mapToInt(Integer::intValue).sorted().toArray();
+        }
+    }
+
+    /**
+     * Calls the consumer with the time spaces between consecutive distinct note onset times in milliseconds, in chronological order.
+     *
+     * @param noteTicks   The sorted note ticks
+     * @param tempoEvents The tempo events
+     * @param consumer    The consumer
+     */
+    private static void forEachTimeSpace(final int[] noteTicks, final TempoEvents tempoEvents, final DoubleConsumer consumer) {
+        final int[] tempoTicks = tempoEvents.getTicks().stream().mapToInt(Integer::intValue).toArray();
+        final float[] tempos = new float[tempoTicks.length];
+        for (int i = 0; i < tempoTicks.length; i++) {
+            tempos[i] = tempoEvents.get(tempoTicks[i]);
+        }
+
+        int noteIndex = 0;
+        int tempoIndex = 0;
+        int effectiveTempoIndex = 0;
+        int lastTick = 0;
+        double totalMilliseconds = 0D;
+        double lastOnset = Double.NaN;
+        while (noteIndex < noteTicks.length) {
+            final int tick;
+            final boolean isNoteTick;
+            if (tempoIndex < tempoTicks.length && tempoTicks[tempoIndex] <= noteTicks[noteIndex]) {
+                tick = tempoTicks[tempoIndex++];
+                isNoteTick = tick == noteTicks[noteIndex];
+                if (isNoteTick) {
+                    noteIndex++;
+                }
+            } else {
+                tick = noteTicks[noteIndex++];
+                isNoteTick = true;
+            }
+
+            while (effectiveTempoIndex + 1 < tempoTicks.length && tempoTicks[effectiveTempoIndex + 1] <= lastTick) {
+                effectiveTempoIndex++;
+            }
+            final float tps = tempos[effectiveTempoIndex];
+            final int ticksInSegment = tick - lastTick;
+            final double segmentMilliseconds = (ticksInSegment / tps) * 1000D;
+            totalMilliseconds += segmentMilliseconds;
+            lastTick = tick;
+
+            if (isNoteTick) {
+                if (!Double.isNaN(lastOnset) && totalMilliseconds != lastOnset) {
+                    consumer.accept(totalMilliseconds - lastOnset);
+                }
+                lastOnset = totalMilliseconds;
+            }
+        }
+    }
+
+    private static int getBucket(final double timeSpace) {
+        final long key = (Double.doubleToRawLongBits(timeSpace) >>> (52 - SUB_BUCKET_BITS)) - FIRST_BUCKET_KEY;
+        return (int) Math.max(0, Math.min(key, BUCKET_COUNT - 1));
+    }
+
+    private void add(final double timeSpace) {
+        final int bucket = getBucket(timeSpace);
+        if (this.counts[bucket] == 0 || timeSpace < this.minimums[bucket]) {
+            this.minimums[bucket] = timeSpace;
+        }
+        if (this.counts[bucket] == 0 || timeSpace > this.maximums[bucket]) {
+            this.maximums[bucket] = timeSpace;
+        }
+        this.counts[bucket]++;
+        this.count++;
+    }
+
+}
@@ -38,6 +38,16 @@ public final class MinecraftDefinitions {
     // Instrument -> [lower shifts, upper shifts]
     private static final Map<MinecraftInstrument, MinecraftInstrument[][]> INSTRUMENT_SHIFTS = new EnumMap<>(MinecraftInstrument.class);
 
+    // Every integer MIDI key and every range between two integer keys gets its own slot, as all keys within a slot are transformed the same way
+    private static final int KEY_SLOT_COUNT = MidiDefinitions.KEY_COUNT * 2;
+    private static final MinecraftInstrument[] INSTRUMENTS = MinecraftInstrument.values();
+    // Instrument * KEY_SLOT_COUNT + key slot -> ordinal of the shifted instrument
+    private static final byte[] SHIFTED_INSTRUMENTS = new byte[INSTRUMENTS.length * KEY_SLOT_COUNT];
+    // Instrument * KEY_SLOT_COUNT + key slot -> octaves the key has to be moved by after shifting the instrument
+    private static final byte[] INSTRUMENT_SHIFT_KEY_OCTAVES = new byte[INSTRUMENTS.length * KEY_SLOT_COUNT];
+    // Key slot -> octaves shift for the Extended Octave Range Notes resource pack
+    private static final byte[] OCTAVES_SHIFTS = new byte[KEY_SLOT_COUNT];
+
     private MinecraftDefinitions() {
     }
 
@@ -82,6 +92,42 @@ public final class MinecraftDefinitions {
         INSTRUMENT_SHIFTS.put(TRUMPET_EXPOSED, new MinecraftInstrument[][]{new MinecraftInstrument[]{DIDGERIDOO}, new MinecraftInstrument[]{CHIME}});
         INSTRUMENT_SHIFTS.put(TRUMPET_OXIDIZED, new MinecraftInstrument[][]{new MinecraftInstrument[0], new MinecraftInstrument[]{FLUTE}});
         INSTRUMENT_SHIFTS.put(TRUMPET_WEATHERED, new MinecraftInstrument[][]{new MinecraftInstrument[0], new MinecraftInstrument[]{FLUTE}});
+
+        for (int slot = 0; slot < KEY_SLOT_COUNT; slot++) {
+            final float slotKey = slot / 2F + (slot % 2 == 0 ? 0F : 0.25F); // Representative key of the slot
+            int octavesShift = 0;
+            float key = slotKey;
+            while (key < LOWEST_MIDI_KEY) {
+                key += KEY_COUNT;
+                octavesShift--;
+            }
+            while (key > HIGHEST_MIDI_KEY) {
+                key -= KEY_COUNT;
+                octavesShift++;
+            }
+            OCTAVES_SHIFTS[slot] = (byte) octavesShift;
+
+            for (MinecraftInstrument instrument : INSTRUMENTS) {
+                final MinecraftInstrument[][] shifts = INSTRUMENT_SHIFTS.get(instrument);
+                MinecraftInstrument shiftedInstrument = instrument;
+                key = slotKey;
+                if (shifts != null) {
+                    int downShifts = 0;
+                    while (key < LOWEST_MIDI_KEY && downShifts < shifts[0].length) {
+                        shiftedInstrument = shifts[0][downShifts++];
+                        key += KEY_COUNT;
+                    }
+                    int upShifts = 0;
+                    while (key > HIGHEST_MIDI_KEY && upShifts < shifts[1].length) {
+                        shiftedInstrument = shifts[1][upShifts++];
+                        key -= KEY_COUNT;
+                    }
+                }
+                final int index = instrument.ordinal() * KEY_SLOT_COUNT + slot;
+                SHIFTED_INSTRUMENTS[index] = (byte) shiftedInstrument.ordinal();
+                INSTRUMENT_SHIFT_KEY_OCTAVES[index] = (byte) Math.round((key - slotKey) / KEY_COUNT);
+            }
+        }
     }
 
     /**
@@ -130,31 +176,21 @@ public final class MinecraftDefinitions {
      * @param note The note to transpose
      */
     public static void instrumentShiftNote(final Note note) {
-        Instrument instrument = note.getInstrument();
+        final Instrument instrument = note.getInstrument();
         if (!(instrument instanceof MinecraftInstrument)) {
             return; // Custom instrument
         }
-
-        final MinecraftInstrument[][] shifts = INSTRUMENT_SHIFTS.get(instrument);
-        if (shifts == null) { // No shifts defined for this instrument
+        final int slot = keySlot(note.getMidiKey());
+        if (slot == -1) {
             return;
         }
 
-        float key = note.getMidiKey();
-        int downShifts = 0;
-        while (key < LOWEST_MIDI_KEY && downShifts < shifts[0].length) {
-            instrument = shifts[0][downShifts++];
-            key += KEY_COUNT;
-        }
-
-        int upShifts = 0;
-        while (key > HIGHEST_MIDI_KEY && upShifts < shifts[1].length) {
-            instrument = shifts[1][upShifts++];
-            key -= KEY_COUNT;
+        final int index = ((MinecraftInstrument) instrument).ordinal() * KEY_SLOT_COUNT + slot;
+        final int keyOctaves = INSTRUMENT_SHIFT_KEY_OCTAVES[index];
+        if (keyOctaves != 0) {
+            note.setInstrument(INSTRUMENTS[SHIFTED_INSTRUMENTS[index]]);
+            note.setMidiKey(shiftKey(note.getMidiKey(), keyOctaves));
         }
-
-        note.setInstrument(instrument);
-        note.setMidiKey(key);
     }
 
     /**
@@ -170,17 +206,15 @@ public final class MinecraftDefinitions {
         if (!(note.getInstrument() instanceof MinecraftInstrument)) {
             return; // Custom instrument
         }
-        int octavesShift = 0;
-        while (note.getMidiKey() < LOWEST_MIDI_KEY) {
-            note.setMidiKey(note.getMidiKey() + KEY_COUNT);
-            octavesShift--;
-        }
-        while (note.getMidiKey() > HIGHEST_MIDI_KEY) {
-            note.setMidiKey(note.getMidiKey() - KEY_COUNT);
-            octavesShift++;
+        final int slot = keySlot(note.getMidiKey());
+        if (slot == -1) {
+            return;
         }
+
+        final int octavesShift = OCTAVES_SHIFTS[slot];
         if (octavesShift != 0) {
-            note.setInstrument(new ShiftedMinecraftInstrument((MinecraftInstrument) note.getInstrument(), octavesShift));
+            note.setMidiKey(shiftKey(note.getMidiKey(), -octavesShift));
+            note.setInstrument(ShiftedMinecraftInstrument.of((MinecraftInstrument) note.getInstrument(), octavesShift));
         }
     }
 
@@ -195,16 +229,49 @@ public final class MinecraftDefinitions {
      */
     @Deprecated
     public static int applyExtendedNotesResourcePackOld(final Note note) {
-        int octavesDelta = 0;
-        while (note.getMidiKey() < LOWEST_MIDI_KEY) {
-            note.setMidiKey(note.getMidiKey() + KEY_COUNT);
-            octavesDelta--;
+        final int slot = keySlot(note.getMidiKey());
+        if (slot == -1) {
+            return 0;
         }
-        while (note.getMidiKey() > HIGHEST_MIDI_KEY) {
-            note.setMidiKey(note.getMidiKey() - KEY_COUNT);
-            octavesDelta++;
+
+        final int octavesDelta = OCTAVES_SHIFTS[slot];
+        if (octavesDelta != 0) {
+            note.setMidiKey(shiftKey(note.getMidiKey(), -octavesDelta));
         }
         return octavesDelta;
     }
 
+    /**
+     * Gets the slot of the given MIDI key in the precomputed transform tables.<br>
+     * Integer keys have an even slot, fractional keys the odd slot after their integer part.
+     *
+     * @param midiKey The MIDI key
+     * @return The slot or -1 if the key is outside the MIDI key range
+     */
+    private static int keySlot(final float midiKey) {
+        if (!(midiKey >= MidiDefinitions.LOWEST_KEY && midiKey <= MidiDefinitions.HIGHEST_KEY)) {
+            return -1;
+        }
+        final int integerKey = (int) midiKey;
+        return integerKey * 2 + (midiKey != integerKey ? 1 : 0);
+    }
+
+    /**
+     * Moves the key by the given amount of octaves. The octaves are added one by one to round fractional keys the same way as shifting them octave by octave.
+     *
+     * @param key     The key
+     * @param octaves The amount of octaves (Negative to move the key down)
+     * @return The moved key
+     */
+    private static float shiftKey(final float key, final int octaves) {
+        float shiftedKey = key;
+        for (int i = 0; i < octaves; i++) {
+            shiftedKey += KEY_COUNT;
+        }
+        for (int i = 0; i > octaves; i--) {
+            shiftedKey -= KEY_COUNT;
+        }
+        return shiftedKey;
+    }
+
 }
@@ -23,6 +23,18 @@ import java.util.Objects;
 
 public class ShiftedMinecraftInstrument implements Instrument {
 
+    private static final int MAX_INTERNED_OCTAVES_SHIFT = 3; // Enough for the whole MIDI key range
+    private static final int INTERNED_SHIFT_COUNT = MAX_INTERNED_OCTAVES_SHIFT * 2 + 1;
+    private static final ShiftedMinecraftInstrument[] INTERNED = new ShiftedMinecraftInstrument[MinecraftInstrument.values().length * INTERNED_SHIFT_COUNT];
+
+    static {
+        for (MinecraftInstrument instrument : MinecraftInstrument.values()) {
+            for (int octavesShift = -MAX_INTERNED_OCTAVES_SHIFT; octavesShift <= MAX_INTERNED_OCTAVES_SHIFT; octavesShift++) {
+                INTERNED[instrument.ordinal() * INTERNED_SHIFT_COUNT + octavesShift + MAX_INTERNED_OCTAVES_SHIFT] = new ShiftedMinecraftInstrument(instrument, octavesShift);
+            }
+        }
+    }
+
     private final MinecraftInstrument instrument;
     private final int octavesShift;
 
@@ -34,6 +46,20 @@ public class ShiftedMinecraftInstrument implements Instrument {
         this.octavesShift = octavesShift;
     }
 
+    /**
+     * Gets a shared instance of the shifted instrument. Instances for the octave shifts which are possible within the MIDI key range are cached.
+     *
+     * @param instrument   The instrument
+     * @param octavesShift The octaves shift
+     * @return The shifted instrument
+     */
+    public static ShiftedMinecraftInstrument of(final MinecraftInstrument instrument, final int octavesShift) {
+        if (instrument != null && octavesShift >= -MAX_INTERNED_OCTAVES_SHIFT && octavesShift <= MAX_INTERNED_OCTAVES_SHIFT) {
+            return INTERNED[instrument.ordinal() * INTERNED_SHIFT_COUNT + octavesShift + MAX_INTERNED_OCTAVES_SHIFT];
+        }
+        return new ShiftedMinecraftInstrument(instrument, octavesShift);
+    }
+
     public String mcSoundName() {
         if (this.octavesShift == 0) {
             return this.instrument.mcSoundName();
@@ -33,11 +33,14 @@ import net.raphimc.noteblocklib.model.note.Note;
 import net.raphimc.noteblocklib.model.song.Song;
 import net.raphimc.noteblocklib.util.MathUtil;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import static net.raphimc.noteblocklib.format.nbs.NbsDefinitions.*;
 
@@ -53,82 +56,101 @@ public final class NbsConverter {
      */
     public static void fillGeneralData(final NbsSong song) {
         song.getTempoEvents().set(0, song.getTempo() / 100F);
-        final Map<NbsCustomInstrument, NbsCustomInstrument> customInstrumentMap = new IdentityHashMap<>(song.getCustomInstruments().size()); // Cache map to avoid creating new instances for each note
-        for (NbsCustomInstrument customInstrument : song.getCustomInstruments()) {
-            customInstrumentMap.put(customInstrument, customInstrument.copy().setPitch(F_SHARP_4_KEY));
-        }
+        final Map<NbsCustomInstrument, NbsCustomInstrument> customInstrumentMap = createCustomInstrumentMap(song);
 
         final Map<Integer, NbsLayer> layers = song.getLayers();
-        final boolean hasSoloLayers = layers.values().stream().anyMatch(layer -> layer.getStatus() == NbsLayer.Status.SOLO);
+        final boolean hasSoloLayers = hasSoloLayers(song);
         for (Map.Entry<Integer, NbsLayer> entry : layers.entrySet()) {
             final NbsLayer layer = entry.getValue();
             for (Map.Entry<Integer, NbsNote> noteEntry : layer.getNotes().entrySet()) {
-                final NbsNote nbsNote = noteEntry.getValue();
+                final Note note = convertNote(song, noteEntry.getKey(), entry.getKey(), layer, noteEntry.getValue(), hasSoloLayers, customInstrumentMap, song);
+                if (note != null) {
+                    song.getNotes().add(noteEntry.getKey(), note);
+                }
+            }
+        }
+    }
 
-                final Note note = new Note();
-                note.setGroupId(entry.getKey());
-                final float effectiveKey = (float) (MathUtil.clamp(nbsNote.getKey(), LOWEST_KEY, HIGHEST_KEY) * PITCHES_PER_KEY + nbsNote.getPitch()) / PITCHES_PER_KEY;
-                note.setMidiKey(MathUtil.clamp(LOWEST_MIDI_KEY + effectiveKey, MidiDefinitions.LOWEST_KEY, MidiDefinitions.HIGHEST_KEY));
+    static Map<NbsCustomInstrument, NbsCustomInstrument> createCustomInstrumentMap(final NbsSong song) {
+        final Map<NbsCustomInstrument, NbsCustomInstrument> customInstrumentMap = new IdentityHashMap<>(song.getCustomInstruments().size()); // Cache map to avoid creating new instances for each note
+        for (NbsCustomInstrument customInstrument : song.getCustomInstruments()) {
+            customInstrumentMap.put(customInstrument, customInstrument.copy().setPitch(F_SHARP_4_KEY));
+        }
+        return customInstrumentMap;
+    }
 
-                if (nbsNote.getInstrument() < song.getVanillaInstrumentCount()) {
-                    note.setInstrument(MinecraftInstrument.fromNbsId(nbsNote.getInstrument()));
-                } else {
-                    final NbsCustomInstrument nbsCustomInstrument = song.getCustomInstruments().get(nbsNote.getInstrument() - song.getVanillaInstrumentCount());
-                    if (song.getVersion() >= 4) {
-                        if (TEMPO_CHANGER_CUSTOM_INSTRUMENT_NAME.equals(nbsCustomInstrument.getName())) {
-                            song.getTempoEvents().set(noteEntry.getKey(), Math.abs(nbsNote.getPitch() / 15F));
-                            continue;
-                        }
-                        if (TOGGLE_RAINBOW_CUSTOM_INSTRUMENT_NAME.equals(nbsCustomInstrument.getName())) {
-                            song.getEvents().add(noteEntry.getKey(), NbsToggleRainbowEvent.INSTANCE);
-                            continue;
-                        }
-                    }
-                    if (song.getVersion() >= 5) {
-                        if (SOUND_STOPPER_CUSTOM_INSTRUMENT_NAME.equals(nbsCustomInstrument.getName())) {
-                            final short startLayer = (short) Math.max(nbsNote.getPitch(), 0);
-                            final short endLayer = (short) Math.max((short) (((nbsNote.getPanning() + 156) % 256) + ((nbsNote.getVelocity() + 156) % 256) * 256), startLayer);
-                            song.getEvents().add(noteEntry.getKey(), new NbsSoundStopperEvent(startLayer, endLayer));
-                            continue;
-                        }
-                        if (SHOW_SAVE_POPUP_CUSTOM_INSTRUMENT_NAME.equals(nbsCustomInstrument.getName())) {
-                            song.getEvents().add(noteEntry.getKey(), NbsShowSavePopupEvent.INSTANCE);
-                            continue;
-                        }
-                        if (nbsCustomInstrument.getNameOr("").toLowerCase(Locale.ROOT).contains(CHANGE_COLOR_CUSTOM_INSTRUMENT_NAME.toLowerCase(Locale.ROOT))) {
-                            continue;
-                        }
-                        if (TOGGLE_BACKGROUND_ACCENT_CUSTOM_INSTRUMENT_NAME.equals(nbsCustomInstrument.getName())) {
-                            song.getEvents().add(noteEntry.getKey(), NbsToggleBackgroundAccentEvent.INSTANCE);
-                            continue;
-                        }
-                    }
+    static boolean hasSoloLayers(final NbsSong song) {
+        return song.getLayers().values().stream().anyMatch(layer -> layer.getStatus() == NbsLayer.Status.SOLO);
+    }
 
-                    final int pitchModifier = nbsCustomInstrument.getPitch() - F_SHARP_4_KEY;
-                    if (pitchModifier != 0) { // Pre-apply pitch modifier to note to make it easier for player implementations
-                        note.setNbsKey(note.getNbsKey() + pitchModifier);
-                        note.setInstrument(customInstrumentMap.get(nbsCustomInstrument)); // Use custom instrument with no pitch modifier, because the pitch modifier is already applied to the note
-                    } else {
-                        note.setInstrument(nbsCustomInstrument);
-                    }
-                }
+    /**
+     * Converts a single NBS note to a general note.<br>
+     * Notes of special custom instruments are added as tempo changes or events to the target song instead.
+     *
+     * @return The note or null if the NBS note isn't a playable note
+     */
+    static Note convertNote(final NbsSong song, final int tick, final int layerIndex, final NbsLayer layer, final NbsNote nbsNote, final boolean hasSoloLayers, final Map<NbsCustomInstrument, NbsCustomInstrument> customInstrumentMap, final Song target) {
+        final Note note = new Note();
+        note.setGroupId(layerIndex);
+        final float effectiveKey = (float) (MathUtil.clamp(nbsNote.getKey(), LOWEST_KEY, HIGHEST_KEY) * PITCHES_PER_KEY + nbsNote.getPitch()) / PITCHES_PER_KEY;
+        note.setMidiKey(MathUtil.clamp(LOWEST_MIDI_KEY + effectiveKey, MidiDefinitions.LOWEST_KEY, MidiDefinitions.HIGHEST_KEY));
 
-                note.setVolume(MathUtil.clamp(Math.min(layer.getVolume() / 100F, 1F) * (nbsNote.getVelocity() / 100F), 0F, 1F));
-                if (layer.getPanning() == CENTER_PANNING) { // Special case
-                    note.setPanning(MathUtil.clamp((nbsNote.getPanning() - CENTER_PANNING) / 100F, -1F, 1F));
-                } else {
-                    note.setPanning(MathUtil.clamp(((layer.getPanning() - CENTER_PANNING) + (nbsNote.getPanning() - CENTER_PANNING)) / 200F, -1F, 1F));
+        if (nbsNote.getInstrument() < song.getVanillaInstrumentCount()) {
+            note.setInstrument(MinecraftInstrument.fromNbsId(nbsNote.getInstrument()));
+        } else {
+            final NbsCustomInstrument nbsCustomInstrument = song.getCustomInstruments().get(nbsNote.getInstrument() - song.getVanillaInstrumentCount());
+            if (song.getVersion() >= 4) {
+                if (TEMPO_CHANGER_CUSTOM_INSTRUMENT_NAME.equals(nbsCustomInstrument.getName())) {
+                    target.getTempoEvents().set(tick, Math.abs(nbsNote.getPitch() / 15F));
+                    return null;
                 }
-
-                if (layer.getStatus() == NbsLayer.Status.LOCKED) { // Locked layers are muted
-                    note.setVolume(0F);
-                } else if (hasSoloLayers && layer.getStatus() != NbsLayer.Status.SOLO) { // Non-solo layers are muted if there are solo layers
-                    note.setVolume(0F);
+                if (TOGGLE_RAINBOW_CUSTOM_INSTRUMENT_NAME.equals(nbsCustomInstrument.getName())) {
+                    target.getEvents().add(tick, NbsToggleRainbowEvent.INSTANCE);
+                    return null;
+                }
+            }
+            if (song.getVersion() >= 5) {
+                if (SOUND_STOPPER_CUSTOM_INSTRUMENT_NAME.equals(nbsCustomInstrument.getName())) {
+                    final short startLayer = (short) Math.max(nbsNote.getPitch(), 0);
+                    final short endLayer = (short) Math.max((short) (((nbsNote.getPanning() + 156) % 256) + ((nbsNote.getVelocity() + 156) % 256) * 256), startLayer);
+                    target.getEvents().add(tick, new NbsSoundStopperEvent(startLayer, endLayer));
+                    return null;
+                }
+                if (SHOW_SAVE_POPUP_CUSTOM_INSTRUMENT_NAME.equals(nbsCustomInstrument.getName())) {
+                    target.getEvents().add(tick, NbsShowSavePopupEvent.INSTANCE);
+                    return null;
                 }
+                if (nbsCustomInstrument.getNameOr("").toLowerCase(Locale.ROOT).contains(CHANGE_COLOR_CUSTOM_INSTRUMENT_NAME.toLowerCase(Locale.ROOT))) {
+                    return null;
+                }
+                if (TOGGLE_BACKGROUND_ACCENT_CUSTOM_INSTRUMENT_NAME.equals(nbsCustomInstrument.getName())) {
+                    target.getEvents().add(tick, NbsToggleBackgroundAccentEvent.INSTANCE);
+                    return null;
+                }
+            }
 
-                song.getNotes().add(noteEntry.getKey(), note);
+            final int pitchModifier = nbsCustomInstrument.getPitch() - F_SHARP_4_KEY;
+            if (pitchModifier != 0) { // Pre-apply pitch modifier to note to make it easier for player implementations
+                note.setNbsKey(note.getNbsKey() + pitchModifier);
+                note.setInstrument(customInstrumentMap.get(nbsCustomInstrument)); // Use custom instrument with no pitch modifier, because the pitch modifier is already applied to the note
+            } else {
+                note.setInstrument(nbsCustomInstrument);
             }
         }
+
+        note.setVolume(MathUtil.clamp(Math.min(layer.getVolume() / 100F, 1F) * (nbsNote.getVelocity() / 100F), 0F, 1F));
+        if (layer.getPanning() == CENTER_PANNING) { // Special case
+            note.setPanning(MathUtil.clamp((nbsNote.getPanning() - CENTER_PANNING) / 100F, -1F, 1F));
+        } else {
+            note.setPanning(MathUtil.clamp(((layer.getPanning() - CENTER_PANNING) + (nbsNote.getPanning() - CENTER_PANNING)) / 200F, -1F, 1F));
+        }
+
+        if (layer.getStatus() == NbsLayer.Status.LOCKED) { // Locked layers are muted
+            note.setVolume(0F);
+        } else if (hasSoloLayers && layer.getStatus() != NbsLayer.Status.SOLO) { // Non-solo layers are muted if there are solo layers
+            note.setVolume(0F);
+        }
+        return note;
     }
 
     /**
@@ -143,16 +165,18 @@ public final class NbsConverter {
         newSong.setLength((short) song.getNotes().getLengthInTicks());
         newSong.setTempo((short) Math.round(song.getTempoEvents().get(0) * 100F));
 
-        final int maxNotesPerGroup = song.getNotes().getTicks().stream()
-            .map(tick -> song.getNotes().get(tick))
-            .mapToInt(notes -> notes.stream()
-                .collect(Collectors.groupingBy(Note::getGroupId, Collectors.counting())).values().stream()
-                .mapToInt(Long::intValue)
-                .max().orElse(0))
-            .max().orElse(0);
+        final int maxNotesPerGroup = getMaxNotesPerGroup(song);
+        final Map<NbsCustomInstrument, Integer> customInstrumentIds = new IdentityHashMap<>(); // Fast path for the same instance being used by many notes
+        final Map<NbsCustomInstrument, Integer> equalCustomInstrumentIds = new HashMap<>();
+        for (int i = 0; i < newSong.getCustomInstruments().size(); i++) {
+            equalCustomInstrumentIds.putIfAbsent(newSong.getCustomInstruments().get(i), i);
+        }
+        final List<NbsLayer> layers = new ArrayList<>();
+        final BitSet occupiedLayers = new BitSet(); // Layers which already have a note at the current tick
 
         for (int tick : song.getNotes().getTicks()) {
-            final List<Note> notes = song.getNotes().get(tick);
+            final List<Note> notes = song.getNotes().getReadOnly(tick);
+            occupiedLayers.clear();
             for (int i = 0; i < notes.size(); i++) {
                 final Note note = notes.get(i);
                 final NbsNote nbsNote = new NbsNote();
@@ -160,10 +184,17 @@ public final class NbsConverter {
                     nbsNote.setInstrument(((MinecraftInstrument) note.getInstrument()).nbsId());
                 } else if (note.getInstrument() instanceof NbsCustomInstrument) {
                     final NbsCustomInstrument customInstrument = (NbsCustomInstrument) note.getInstrument();
-                    if (!newSong.getCustomInstruments().contains(customInstrument)) {
-                        newSong.getCustomInstruments().add(customInstrument);
+                    Integer customInstrumentId = customInstrumentIds.get(customInstrument);
+                    if (customInstrumentId == null) {
+                        customInstrumentId = equalCustomInstrumentIds.get(customInstrument);
+                        if (customInstrumentId == null) {
+                            customInstrumentId = newSong.getCustomInstruments().size();
+                            newSong.getCustomInstruments().add(customInstrument);
+                            equalCustomInstrumentIds.put(customInstrument, customInstrumentId);
+                        }
+                        customInstrumentIds.put(customInstrument, customInstrumentId);
                     }
-                    nbsNote.setInstrument(newSong.getVanillaInstrumentCount() + newSong.getCustomInstruments().indexOf(customInstrument));
+                    nbsNote.setInstrument(newSong.getVanillaInstrumentCount() + customInstrumentId);
                 } else {
                     continue;
                 }
@@ -175,36 +206,39 @@ public final class NbsConverter {
                 nbsNote.setVelocity(Math.round(note.getVolume() * 100F));
                 nbsNote.setPanning(Math.round(note.getPanning() * 100F) + NbsDefinitions.CENTER_PANNING);
 
-                NbsLayer nbsLayer;
+                final int layerIndex;
                 if (note.getGroupId() < 0) { // Ungrouped notes
-                    nbsLayer = newSong.getLayers().computeIfAbsent(i, k -> new NbsLayer());
+                    layerIndex = i;
                 } else {
                     if (maxNotesPerGroup == 1) { // 1:1 mapping of groups to layers possible
-                        nbsLayer = newSong.getLayers().computeIfAbsent(note.getGroupId(), k -> new NbsLayer());
+                        layerIndex = note.getGroupId();
                     } else { // Multiple notes with the same group id, so we need to find an empty layer for each note
-                        nbsLayer = null;
-                        for (int offset = 0; offset < maxNotesPerGroup; offset++) {
-                            nbsLayer = newSong.getLayers().computeIfAbsent(note.getGroupId() * maxNotesPerGroup + offset, k -> new NbsLayer());
-                            if (!nbsLayer.getNotes().containsKey(tick)) {
-                                break;
-                            }
-                        }
-                        if (nbsLayer == null || nbsLayer.getNotes().containsKey(tick)) {
+                        final int firstLayerIndex = note.getGroupId() * maxNotesPerGroup;
+                        layerIndex = occupiedLayers.nextClearBit(firstLayerIndex);
+                        if (layerIndex >= firstLayerIndex + maxNotesPerGroup) {
                             throw new IllegalStateException("Couldn't find empty layer for note with group id " + note.getGroupId() + " at tick " + tick + " after checking " + maxNotesPerGroup + " layers, this should never happen");
                         }
                     }
                 }
-                if (nbsLayer.getNotes().put(tick, nbsNote) != null) {
+                if (occupiedLayers.get(layerIndex)) {
                     throw new IllegalStateException("Multiple notes at the same tick and layer after conversion, this should never happen");
                 }
+                occupiedLayers.set(layerIndex);
+                while (layers.size() <= layerIndex) {
+                    layers.add(null);
+                }
+                NbsLayer nbsLayer = layers.get(layerIndex);
+                if (nbsLayer == null) {
+                    nbsLayer = new NbsLayer();
+                    layers.set(layerIndex, nbsLayer);
+                }
+                nbsLayer.getNotes().put(tick, nbsNote);
             }
         }
         // NBS does not allow for gaps in the layer ids, so we need to fill them with empty layers
-        final int highestLayer = newSong.getLayers().keySet().stream().max(Integer::compareTo).orElse(0);
-        for (int i = 0; i < highestLayer; i++) {
-            if (!newSong.getLayers().containsKey(i)) {
-                newSong.getLayers().put(i, new NbsLayer());
-            }
+        for (int i = 0; i < layers.size(); i++) {
+            final NbsLayer nbsLayer = layers.get(i);
+            newSong.getLayers().put(i, nbsLayer != null ? nbsLayer : new NbsLayer());
         }
 
         newSong.getCustomInstruments().replaceAll(NbsCustomInstrument::copy);
@@ -280,6 +314,41 @@ public final class NbsConverter {
         return newSong;
     }
 
+    /**
+     * Counts the maximum amount of notes with the same group id at any tick.<br>
+     * The group ids of each tick are sorted into a reused array, so equal group ids form runs which can be counted without boxing.
+     */
+    private static int getMaxNotesPerGroup(final Song song) {
+        int maxNotesPerGroup = 0;
+        int[] groupIds = new int[16];
+        for (int tick : song.getNotes().getTicks()) {
+            final List<Note> notes = song.getNotes().getReadOnly(tick);
+            final int noteCount = notes.size();
+            if (noteCount <= 1 || maxNotesPerGroup >= noteCount) {
+                maxNotesPerGroup = Math.max(maxNotesPerGroup, noteCount);
+                continue;
+            }
+            if (groupIds.length < noteCount) {
+                groupIds = new int[Math.max(noteCount, groupIds.length * 2)];
+            }
+            for (int i = 0; i < noteCount; i++) {
+                groupIds[i] = notes.get(i).getGroupId();
+            }
+            Arrays.sort(groupIds, 0, noteCount);
+            int runLength = 1;
+            for (int i = 1; i < noteCount; i++) {
+                if (groupIds[i] == groupIds[i - 1]) {
+                    runLength++;
+                } else {
+                    maxNotesPerGroup = Math.max(maxNotesPerGroup, runLength);
+                    runLength = 1;
+                }
+            }
+            maxNotesPerGroup = Math.max(maxNotesPerGroup, runLength);
+        }
+        return maxNotesPerGroup;
+    }
+
     private static void addEvents(final Song song, final NbsSong newSong, final Class<? extends Event> eventClass, final String instrumentName) {
         if (song.getEvents().testEach(eventClass::isInstance)) {
             final int instrumentId = addCustomInstrument(newSong, instrumentName);
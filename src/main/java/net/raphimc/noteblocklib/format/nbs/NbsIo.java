@@ -21,74 +21,100 @@ import net.raphimc.noteblocklib.format.nbs.model.NbsCustomInstrument;
 import net.raphimc.noteblocklib.format.nbs.model.NbsLayer;
 import net.raphimc.noteblocklib.format.nbs.model.NbsNote;
 import net.raphimc.noteblocklib.format.nbs.model.NbsSong;
-import net.raphimc.noteblocklib.util.io.BinaryInputStream;
-import net.raphimc.noteblocklib.util.io.BinaryOutputStream;
+import net.raphimc.noteblocklib.format.nbs.model.NbsSongInfo;
+import net.raphimc.noteblocklib.util.io.BinaryReader;
+import net.raphimc.noteblocklib.util.io.BinaryWriter;
+import net.raphimc.noteblocklib.util.io.IoUtil;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Map;
-import java.util.TreeMap;
 
 public final class NbsIo {
 
     private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final int HEADER_BUFFER_SIZE = 8192;
 
     private NbsIo() {
     }
 
     public static NbsSong readSong(final InputStream is, final String fileName) throws IOException {
-        final BinaryInputStream bis = new BinaryInputStream(new BufferedInputStream(is, BUFFER_SIZE), ByteOrder.LITTLE_ENDIAN);
-        final NbsSong song = new NbsSong(fileName);
+        return readSong(is, fileName, NbsStringCodec.ISO_8859_1);
+    }
 
-        final short length = bis.readShort();
-        if (length == 0) {
-            song.setVersion(bis.readUnsignedByte());
-            song.setVanillaInstrumentCount(bis.readUnsignedByte());
-            if (song.getVersion() >= 3) {
-                song.setLength(bis.readShort());
-            } else {
-                song.setLength((short) -1);
-            }
-        } else {
-            song.setLength(length);
-            song.setVersion(0);
-            song.setVanillaInstrumentCount(10);
-        }
+    public static NbsSong readSong(final InputStream is, final String fileName, final NbsStringCodec codec) throws IOException {
+        return readSong(new BinaryReader(is, ByteOrder.LITTLE_ENDIAN, BUFFER_SIZE), fileName, codec);
+    }
 
-        if (song.getVersion() < 0 || song.getVersion() > 6) {
-            throw new IllegalStateException("Unsupported NBS version: " + song.getVersion());
-        }
+    /**
+     * Reads an NBS song directly from the remaining bytes of the given buffer (e.g. a heap buffer or a memory-mapped file).<br>
+     * The position of the buffer is not modified.
+     *
+     * @param buffer   The buffer
+     * @param fileName The file name of the song
+     * @return The song
+     * @throws IOException If the data is truncated
+     */
+    public static NbsSong readSong(final ByteBuffer buffer, final String fileName) throws IOException {
+        return readSong(buffer, fileName, NbsStringCodec.ISO_8859_1);
+    }
 
-        song.setLayerCount(bis.readShort());
-        song.setTitle(readString(bis));
-        song.setAuthor(readString(bis));
-        song.setOriginalAuthor(readString(bis));
-        song.setDescription(readString(bis));
-        song.setTempo(bis.readShort());
-        song.setAutoSave(bis.readBoolean());
-        song.setAutoSaveInterval(bis.readUnsignedByte());
-        song.setTimeSignature(bis.readUnsignedByte());
-        song.setMinutesSpent(bis.readInt());
-        song.setLeftClicks(bis.readInt());
-        song.setRightClicks(bis.readInt());
-        song.setNoteBlocksAdded(bis.readInt());
-        song.setNoteBlocksRemoved(bis.readInt());
-        song.setSourceFileName(readString(bis));
+    /**
+     * Reads an NBS song directly from the remaining bytes of the given buffer (e.g. a heap buffer or a memory-mapped file).<br>
+     * The position of the buffer is not modified.
+     *
+     * @param buffer   The buffer
+     * @param fileName The file name of the song
+     * @param codec    The codec used to decode the strings
+     * @return The song
+     * @throws IOException If the data is truncated
+     */
+    public static NbsSong readSong(final ByteBuffer buffer, final String fileName, final NbsStringCodec codec) throws IOException {
+        return readSong(new BinaryReader(buffer, ByteOrder.LITTLE_ENDIAN), fileName, codec);
+    }
 
-        if (song.getVersion() >= 4) {
-            song.setLoop(bis.readBoolean());
-            song.setMaxLoopCount(bis.readUnsignedByte());
-            song.setLoopStartTick(bis.readShort());
-        }
+    /**
+     * Reads an NBS song from the given file.<br>
+     * Large files are memory-mapped, small files are read into a heap buffer at once.
+     *
+     * @param path     The path of the file
+     * @param fileName The file name of the song
+     * @return The song
+     * @throws IOException If an I/O error occurs
+     */
+    public static NbsSong readSong(final Path path, final String fileName) throws IOException {
+        return readSong(path, fileName, NbsStringCodec.ISO_8859_1);
+    }
+
+    /**
+     * Reads an NBS song from the given file.<br>
+     * Large files are memory-mapped, small files are read into a heap buffer at once.
+     *
+     * @param path     The path of the file
+     * @param fileName The file name of the song
+     * @param codec    The codec used to decode the strings
+     * @return The song
+     * @throws IOException If an I/O error occurs
+     */
+    public static NbsSong readSong(final Path path, final String fileName, final NbsStringCodec codec) throws IOException {
+        return readSong(IoUtil.readFile(path), fileName, codec);
+    }
+
+    private static NbsSong readSong(final BinaryReader reader, final String fileName, final NbsStringCodec codec) throws IOException {
+        final NbsSong song = new NbsSong(fileName);
+
+        readHeader(reader, song, codec);
 
         final Map<Integer, NbsLayer> layers = song.getLayers();
         int tick = -1;
         while (true) {
-            final short jumpTicks = bis.readShort();
+            final short jumpTicks = reader.readShort();
             if (jumpTicks == 0) {
                 break;
             }
@@ -96,30 +122,33 @@ public final class NbsIo {
 
             int layer = -1;
             while (true) {
-                final short jumpLayers = bis.readShort();
+                final short jumpLayers = reader.readShort();
                 if (jumpLayers == 0) {
                     break;
                 }
                 layer += jumpLayers;
 
-                final NbsNote note = new NbsNote();
-                note.setInstrument(bis.readUnsignedByte());
-                note.setKey(bis.readUnsignedByte());
-                if (song.getVersion() >= 4) {
-                    note.setVelocity(bis.readUnsignedByte());
-                    note.setPanning(bis.readUnsignedByte());
-                    note.setPitch(bis.readShort());
-                }
-                layers.computeIfAbsent(layer, k -> new NbsLayer()).getNotes().put(tick, note);
+                layers.computeIfAbsent(layer, k -> new NbsLayer()).getNotes().put(tick, readNote(reader, song.getVersion()));
             }
         }
 
-        if (bis.available() > 0) {
+        readLayersAndCustomInstruments(reader, song, codec);
+
+        NbsConverter.fillGeneralData(song);
+        return song;
+    }
+
+    /**
+     * Reads the layer and custom instrument sections which follow the note section.
+     */
+    static void readLayersAndCustomInstruments(final BinaryReader reader, final NbsSong song, final NbsStringCodec codec) throws IOException {
+        final Map<Integer, NbsLayer> layers = song.getLayers();
+        if (reader.hasRemaining()) {
             for (int i = 0; i < song.getLayerCount(); i++) {
                 final NbsLayer layer = layers.computeIfAbsent(i, k -> new NbsLayer());
-                layer.setName(readString(bis));
+                layer.setName(codec.read(reader));
                 if (song.getVersion() >= 4) {
-                    final int lockedByte = bis.readUnsignedByte();
+                    final int lockedByte = reader.readUnsignedByte();
                     switch (lockedByte) {
                         case 0:
                             layer.setStatus(NbsLayer.Status.NONE);
@@ -132,148 +161,328 @@ public final class NbsIo {
                             break;
                     }
                 }
-                layer.setVolume(bis.readUnsignedByte());
+                layer.setVolume(reader.readUnsignedByte());
                 if (song.getVersion() >= 2) {
-                    layer.setPanning(bis.readUnsignedByte());
+                    layer.setPanning(reader.readUnsignedByte());
                 }
             }
         }
 
-        if (bis.available() > 0) {
-            final int customInstrumentCount = bis.readUnsignedByte();
+        if (reader.hasRemaining()) {
+            final int customInstrumentCount = reader.readUnsignedByte();
             for (int i = 0; i < customInstrumentCount; i++) {
                 final NbsCustomInstrument customInstrument = new NbsCustomInstrument();
-                customInstrument.setName(readString(bis));
-                customInstrument.setSoundFilePath(readString(bis));
-                customInstrument.setPitch(bis.readUnsignedByte());
-                customInstrument.setPressKey(bis.readBoolean());
+                customInstrument.setName(codec.read(reader));
+                customInstrument.setSoundFilePath(codec.read(reader));
+                customInstrument.setPitch(reader.readUnsignedByte());
+                customInstrument.setPressKey(reader.readBoolean());
                 song.getCustomInstruments().add(customInstrument);
             }
         }
+    }
+
+    static NbsNote readNote(final BinaryReader reader, final int version) throws IOException {
+        final NbsNote note = new NbsNote();
+        note.setInstrument(reader.readUnsignedByte());
+        note.setKey(reader.readUnsignedByte());
+        if (version >= 4) {
+            note.setVelocity(reader.readUnsignedByte());
+            note.setPanning(reader.readUnsignedByte());
+            note.setPitch(reader.readShort());
+        }
+        return note;
+    }
 
-        NbsConverter.fillGeneralData(song);
-        return song;
+    /**
+     * Reads only the header of an NBS song without decoding the notes.
+     *
+     * @param is       The input stream
+     * @param fileName The file name of the song
+     * @return The song info
+     * @throws IOException If an I/O error occurs
+     */
+    public static NbsSongInfo readHeader(final InputStream is, final String fileName) throws IOException {
+        return readHeader(is, fileName, false);
+    }
+
+    /**
+     * Reads the header of an NBS song without decoding the notes.<br>
+     * If scanNotes is true, the note section is walked without allocating any notes to determine the note count and last tick.
+     *
+     * @param is        The input stream
+     * @param fileName  The file name of the song
+     * @param scanNotes Whether the note section should be scanned
+     * @return The song info
+     * @throws IOException If an I/O error occurs
+     */
+    public static NbsSongInfo readHeader(final InputStream is, final String fileName, final boolean scanNotes) throws IOException {
+        return readHeader(is, fileName, scanNotes, NbsStringCodec.ISO_8859_1);
+    }
+
+    public static NbsSongInfo readHeader(final InputStream is, final String fileName, final boolean scanNotes, final NbsStringCodec codec) throws IOException {
+        return readHeader(new BinaryReader(is, ByteOrder.LITTLE_ENDIAN, HEADER_BUFFER_SIZE), fileName, scanNotes, codec);
+    }
+
+    /**
+     * Reads the header of an NBS song from the remaining bytes of the given buffer without decoding the notes.
+     *
+     * @param buffer    The buffer
+     * @param fileName  The file name of the song
+     * @param scanNotes Whether the note section should be scanned
+     * @return The song info
+     * @throws IOException If the data is truncated
+     * @see #readHeader(InputStream, String, boolean)
+     */
+    public static NbsSongInfo readHeader(final ByteBuffer buffer, final String fileName, final boolean scanNotes) throws IOException {
+        return readHeader(buffer, fileName, scanNotes, NbsStringCodec.ISO_8859_1);
+    }
+
+    public static NbsSongInfo readHeader(final ByteBuffer buffer, final String fileName, final boolean scanNotes, final NbsStringCodec codec) throws IOException {
+        return readHeader(new BinaryReader(buffer, ByteOrder.LITTLE_ENDIAN), fileName, scanNotes, codec);
+    }
+
+    private static NbsSongInfo readHeader(final BinaryReader reader, final String fileName, final boolean scanNotes, final NbsStringCodec codec) throws IOException {
+        final NbsSong header = new NbsSong(fileName);
+        readHeader(reader, header, codec);
+        if (!scanNotes) {
+            return new NbsSongInfo(header, -1, -1);
+        }
+
+        return scanNotes(reader, header);
+    }
+
+    /**
+     * Walks the note section without allocating any notes.
+     */
+    static NbsSongInfo scanNotes(final BinaryReader reader, final NbsSong header) throws IOException {
+        final int noteDataLength = header.getVersion() >= 4 ? 6 : 2;
+        int noteCount = 0;
+        int tick = -1;
+        while (true) {
+            final short jumpTicks = reader.readShort();
+            if (jumpTicks == 0) {
+                break;
+            }
+            tick += jumpTicks;
+
+            while (reader.readShort() != 0) {
+                reader.skipBytes(noteDataLength);
+                noteCount++;
+            }
+        }
+        return new NbsSongInfo(header, noteCount, tick);
+    }
+
+    /**
+     * Writes an NBS song to the given channel.<br>
+     * The channel is not closed.
+     *
+     * @param song    The song
+     * @param channel The channel
+     * @throws IOException If an I/O error occurs
+     */
+    public static void writeSong(final NbsSong song, final WritableByteChannel channel) throws IOException {
+        writeSong(song, channel, NbsStringCodec.ISO_8859_1);
+    }
+
+    /**
+     * Writes an NBS song to the given channel.<br>
+     * The channel is not closed.
+     *
+     * @param song    The song
+     * @param channel The channel
+     * @param codec   The codec used to encode the strings
+     * @throws IOException If an I/O error occurs
+     */
+    public static void writeSong(final NbsSong song, final WritableByteChannel channel, final NbsStringCodec codec) throws IOException {
+        writeSong(song, new BinaryWriter(channel, ByteOrder.LITTLE_ENDIAN, BUFFER_SIZE), codec);
     }
 
     public static void writeSong(final NbsSong song, final OutputStream os) throws IOException {
+        writeSong(song, os, NbsStringCodec.ISO_8859_1);
+    }
+
+    public static void writeSong(final NbsSong song, final OutputStream os, final NbsStringCodec codec) throws IOException {
+        writeSong(song, new BinaryWriter(os, ByteOrder.LITTLE_ENDIAN, BUFFER_SIZE), codec);
+    }
+
+    private static void writeSong(final NbsSong song, final BinaryWriter writer, final NbsStringCodec codec) throws IOException {
         if (song.getVersion() < 0 || song.getVersion() > 6) {
             throw new IllegalArgumentException("Unsupported NBS version: " + song.getVersion());
         }
         if (song.getLayerCount() > song.getLayers().size()) {
             throw new IllegalArgumentException("Layer count must be less than or equal to the amount of layers");
         }
-        final BinaryOutputStream bos = new BinaryOutputStream(new BufferedOutputStream(os, BUFFER_SIZE), ByteOrder.LITTLE_ENDIAN);
-
         if (song.getVersion() == 0) {
-            bos.writeShort(song.getLength());
+            writer.writeShort(song.getLength());
         } else {
-            bos.writeShort(0);
-            bos.writeUnsignedByte(song.getVersion());
-            bos.writeUnsignedByte(song.getVanillaInstrumentCount());
+            writer.writeShort(0);
+            writer.writeUnsignedByte(song.getVersion());
+            writer.writeUnsignedByte(song.getVanillaInstrumentCount());
             if (song.getVersion() >= 3) {
-                bos.writeShort(song.getLength());
+                writer.writeShort(song.getLength());
             }
         }
 
-        bos.writeShort(song.getLayerCount());
-        writeString(bos, song.getTitleOr(""));
-        writeString(bos, song.getAuthorOr(""));
-        writeString(bos, song.getOriginalAuthorOr(""));
-        writeString(bos, song.getDescriptionOr(""));
-        bos.writeShort(song.getTempo());
-        bos.writeBoolean(song.isAutoSave());
-        bos.writeUnsignedByte(song.getAutoSaveInterval());
-        bos.writeUnsignedByte(song.getTimeSignature());
-        bos.writeInt(song.getMinutesSpent());
-        bos.writeInt(song.getLeftClicks());
-        bos.writeInt(song.getRightClicks());
-        bos.writeInt(song.getNoteBlocksAdded());
-        bos.writeInt(song.getNoteBlocksRemoved());
-        writeString(bos, song.getSourceFileNameOr(""));
+        writer.writeShort(song.getLayerCount());
+        codec.write(writer, song.getTitleOr(""));
+        codec.write(writer, song.getAuthorOr(""));
+        codec.write(writer, song.getOriginalAuthorOr(""));
+        codec.write(writer, song.getDescriptionOr(""));
+        writer.writeShort(song.getTempo());
+        writer.writeBoolean(song.isAutoSave());
+        writer.writeUnsignedByte(song.getAutoSaveInterval());
+        writer.writeUnsignedByte(song.getTimeSignature());
+        writer.writeInt(song.getMinutesSpent());
+        writer.writeInt(song.getLeftClicks());
+        writer.writeInt(song.getRightClicks());
+        writer.writeInt(song.getNoteBlocksAdded());
+        writer.writeInt(song.getNoteBlocksRemoved());
+        codec.write(writer, song.getSourceFileNameOr(""));
 
         if (song.getVersion() >= 4) {
-            bos.writeBoolean(song.isLoop());
-            bos.writeUnsignedByte(song.getMaxLoopCount());
-            bos.writeShort(song.getLoopStartTick());
+            writer.writeBoolean(song.isLoop());
+            writer.writeUnsignedByte(song.getMaxLoopCount());
+            writer.writeShort(song.getLoopStartTick());
         }
 
-        final Map<Integer, Map<Integer, NbsNote>> notes = new TreeMap<>();
-        for (Map.Entry<Integer, NbsLayer> layerEntry : song.getLayers().entrySet()) {
-            for (Map.Entry<Integer, NbsNote> noteEntry : layerEntry.getValue().getNotes().entrySet()) {
-                notes.computeIfAbsent(noteEntry.getKey(), k -> new TreeMap<>()).put(layerEntry.getKey(), noteEntry.getValue());
-            }
-        }
-
-        int lastTick = -1;
-        for (Map.Entry<Integer, Map<Integer, NbsNote>> tickEntry : notes.entrySet()) {
-            bos.writeShort(tickEntry.getKey() - lastTick);
-            lastTick = tickEntry.getKey();
-
-            int lastLayer = -1;
-            for (Map.Entry<Integer, NbsNote> layerEntry : tickEntry.getValue().entrySet()) {
-                bos.writeShort(layerEntry.getKey() - lastLayer);
-                lastLayer = layerEntry.getKey();
-
-                final NbsNote note = layerEntry.getValue();
-                bos.writeUnsignedByte(note.getInstrument());
-                bos.writeUnsignedByte(note.getKey());
-                if (song.getVersion() >= 4) {
-                    bos.writeUnsignedByte(note.getVelocity());
-                    bos.writeUnsignedByte(note.getPanning());
-                    bos.writeShort(note.getPitch());
-                }
-            }
-            bos.writeShort(0);
-        }
-        bos.writeShort(0);
+        writeNotes(song, writer);
 
         for (int i = 0; i < song.getLayerCount(); i++) {
             final NbsLayer layer = song.getLayers().get(i);
-            writeString(bos, layer.getNameOr(""));
+            codec.write(writer, layer.getNameOr(""));
             if (song.getVersion() >= 4) {
                 switch (layer.getStatus()) {
                     case NONE:
-                        bos.writeUnsignedByte(0);
+                        writer.writeUnsignedByte(0);
                         break;
                     case LOCKED:
-                        bos.writeUnsignedByte(1);
+                        writer.writeUnsignedByte(1);
                         break;
                     case SOLO:
-                        bos.writeUnsignedByte(2);
+                        writer.writeUnsignedByte(2);
                         break;
                     default:
                         throw new IllegalStateException("Unsupported layer status: " + layer.getStatus());
                 }
             }
-            bos.writeUnsignedByte(layer.getVolume());
+            writer.writeUnsignedByte(layer.getVolume());
             if (song.getVersion() >= 2) {
-                bos.writeUnsignedByte(layer.getPanning());
+                writer.writeUnsignedByte(layer.getPanning());
             }
         }
 
-        bos.writeUnsignedByte(song.getCustomInstruments().size());
+        writer.writeUnsignedByte(song.getCustomInstruments().size());
         for (NbsCustomInstrument customInstrument : song.getCustomInstruments()) {
-            writeString(bos, customInstrument.getNameOr(""));
-            writeString(bos, customInstrument.getSoundFilePathOr(""));
-            bos.writeUnsignedByte(customInstrument.getPitch());
-            bos.writeBoolean(customInstrument.isPressKey());
+            codec.write(writer, customInstrument.getNameOr(""));
+            codec.write(writer, customInstrument.getSoundFilePathOr(""));
+            writer.writeUnsignedByte(customInstrument.getPitch());
+            writer.writeBoolean(customInstrument.isPressKey());
         }
 
-        bos.flush();
+        writer.flush();
     }
 
-    private static String readString(final BinaryInputStream bis) throws IOException {
-        final char[] buffer = new char[bis.readInt()];
-        for (int i = 0; i < buffer.length; i++) {
-            buffer[i] = (char) bis.readUnsignedByte();
+    /**
+     * Writes the note section of an NBS song.<br>
+     * Every note is packed into a long of its tick and its index in a note array which is filled in ascending layer order.
+     * Sorting these longs yields the tick/layer order of the format without regrouping the notes into boxed maps.
+     */
+    private static void writeNotes(final NbsSong song, final BinaryWriter writer) throws IOException {
+        final int[] layerIds = new int[song.getLayers().size()];
+        int noteCount = 0;
+        int layerIndex = 0;
+        for (Map.Entry<Integer, NbsLayer> layerEntry : song.getLayers().entrySet()) {
+            layerIds[layerIndex++] = layerEntry.getKey();
+            noteCount += layerEntry.getValue().getNotes().size();
         }
-        return new String(buffer);
+        Arrays.sort(layerIds);
+
+        final long[] keys = new long[noteCount];
+        final NbsNote[] notes = new NbsNote[noteCount];
+        final int[] noteLayers = new int[noteCount];
+        int noteIndex = 0;
+        for (int layerId : layerIds) {
+            for (Map.Entry<Integer, NbsNote> noteEntry : song.getLayers().get(layerId).getNotes().entrySet()) {
+                keys[noteIndex] = ((long) noteEntry.getKey() << 32) | noteIndex;
+                notes[noteIndex] = noteEntry.getValue();
+                noteLayers[noteIndex] = layerId;
+                noteIndex++;
+            }
+        }
+        Arrays.sort(keys);
+
+        int lastTick = -1;
+        int lastLayer = -1;
+        for (int i = 0; i < keys.length; i++) {
+            final int tick = (int) (keys[i] >> 32);
+            final int index = (int) keys[i];
+            if (i == 0 || tick != lastTick) {
+                if (i != 0) {
+                    writer.writeShort((short) 0);
+                }
+                writer.writeShort(tick - lastTick);
+                lastTick = tick;
+                lastLayer = -1;
+            }
+            writer.writeShort(noteLayers[index] - lastLayer);
+            lastLayer = noteLayers[index];
+
+            final NbsNote note = notes[index];
+            writer.writeUnsignedByte(note.getInstrument());
+            writer.writeUnsignedByte(note.getKey());
+            if (song.getVersion() >= 4) {
+                writer.writeUnsignedByte(note.getVelocity());
+                writer.writeUnsignedByte(note.getPanning());
+                writer.writeShort(note.getPitch());
+            }
+        }
+        if (keys.length != 0) {
+            writer.writeShort((short) 0);
+        }
+        writer.writeShort((short) 0);
     }
 
-    private static void writeString(final BinaryOutputStream bos, final String string) throws IOException {
-        bos.writeInt(string.length());
-        for (char c : string.toCharArray()) {
-            bos.writeUnsignedByte(c);
+    static void readHeader(final BinaryReader reader, final NbsSong song, final NbsStringCodec codec) throws IOException {
+        final short length = reader.readShort();
+        if (length == 0) {
+            song.setVersion(reader.readUnsignedByte());
+            song.setVanillaInstrumentCount(reader.readUnsignedByte());
+            if (song.getVersion() >= 3) {
+                song.setLength(reader.readShort());
+            } else {
+                song.setLength((short) -1);
+            }
+        } else {
+            song.setLength(length);
+            song.setVersion(0);
+            song.setVanillaInstrumentCount(10);
+        }
+
+        if (song.getVersion() < 0 || song.getVersion() > 6) {
+            throw new IllegalStateException("Unsupported NBS version: " + song.getVersion());
+        }
+
+        song.setLayerCount(reader.readShort());
+        song.setTitle(codec.read(reader));
+        song.setAuthor(codec.read(reader));
+        song.setOriginalAuthor(codec.read(reader));
+        song.setDescription(codec.read(reader));
+        song.setTempo(reader.readShort());
+        song.setAutoSave(reader.readBoolean());
+        song.setAutoSaveInterval(reader.readUnsignedByte());
+        song.setTimeSignature(reader.readUnsignedByte());
+        song.setMinutesSpent(reader.readInt());
+        song.setLeftClicks(reader.readInt());
+        song.setRightClicks(reader.readInt());
+        song.setNoteBlocksAdded(reader.readInt());
+        song.setNoteBlocksRemoved(reader.readInt());
+        song.setSourceFileName(codec.read(reader));
+
+        if (song.getVersion() >= 4) {
+            song.setLoop(reader.readBoolean());
+            song.setMaxLoopCount(reader.readUnsignedByte());
+            song.setLoopStartTick(reader.readShort());
         }
     }
 
@@ -0,0 +1,260 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.format.nbs;
+
+import net.raphimc.noteblocklib.format.nbs.model.NbsNote;
+import net.raphimc.noteblocklib.format.nbs.model.NbsSong;
+import net.raphimc.noteblocklib.util.io.BinaryReader;
+import net.raphimc.noteblocklib.util.io.IoUtil;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Pull-style reader which yields the notes of an NBS song in file order, straight from the jump-encoded note section.<br>
+ * Only the header (and, for random-access sources, the layers and custom instruments) is kept in memory.<br>
+ * For stream sources the layers and custom instruments are stored after the note section, so they are only available once all notes have been read.
+ */
+public class NbsStreamReader implements Closeable {
+
+    private final ByteBuffer buffer;
+    private final InputStream inputStream;
+    private final NbsSong song;
+    private BinaryReader reader;
+
+    private int lastTick = -1;
+    private boolean hasLayerInfo;
+    private boolean finished;
+    private boolean inTick;
+    private int tick;
+    private int layer;
+    private NbsNote note;
+
+    /**
+     * Creates a reader over the remaining bytes of the given buffer (e.g. a heap buffer or a memory-mapped file).<br>
+     * The note section is walked once without allocating notes to read the layers and custom instruments upfront.
+     *
+     * @param buffer   The buffer
+     * @param fileName The file name of the song
+     * @throws IOException If the data is truncated
+     */
+    public NbsStreamReader(final ByteBuffer buffer, final String fileName) throws IOException {
+        this.buffer = buffer;
+        this.inputStream = null;
+        this.song = new NbsSong(fileName);
+
+        final BinaryReader scanReader = new BinaryReader(buffer, ByteOrder.LITTLE_ENDIAN);
+        NbsIo.readHeader(scanReader, this.song, NbsStringCodec.ISO_8859_1);
+        this.lastTick = NbsIo.scanNotes(scanReader, this.song).getLastTick();
+        NbsIo.readLayersAndCustomInstruments(scanReader, this.song, NbsStringCodec.ISO_8859_1);
+        this.song.getTempoEvents().set(0, this.song.getTempo() / 100F);
+        this.hasLayerInfo = true;
+        this.rewind();
+    }
+
+    /**
+     * Creates a reader for the given file.
+     *
+     * @param path     The path of the file
+     * @param fileName The file name of the song
+     * @throws IOException If an I/O error occurs
+     * @see #NbsStreamReader(ByteBuffer, String)
+     */
+    public NbsStreamReader(final Path path, final String fileName) throws IOException {
+        this(IoUtil.readFile(path), fileName);
+    }
+
+    /**
+     * Creates a reader over the given input stream.<br>
+     * The layers and custom instruments are only available after all notes have been read and the reader can't be rewound.
+     *
+     * @param is       The input stream
+     * @param fileName The file name of the song
+     * @throws IOException If an I/O error occurs
+     */
+    public NbsStreamReader(final InputStream is, final String fileName) throws IOException {
+        this.buffer = null;
+        this.inputStream = is;
+        this.song = new NbsSong(fileName);
+        this.reader = new BinaryReader(is, ByteOrder.LITTLE_ENDIAN);
+        NbsIo.readHeader(this.reader, this.song, NbsStringCodec.ISO_8859_1);
+        this.song.getTempoEvents().set(0, this.song.getTempo() / 100F);
+        this.tick = -1;
+    }
+
+    /**
+     * Advances to the next note.
+     *
+     * @return Whether there was a next note.
+     * @throws IOException If an I/O error occurs
+     */
+    public boolean nextNote() throws IOException {
+        while (!this.finished) {
+            if (!this.inTick && !this.nextTickHeader()) {
+                return false;
+            }
+
+            final short jumpLayers = this.reader.readShort();
+            if (jumpLayers == 0) {
+                this.inTick = false;
+                continue;
+            }
+            this.layer += jumpLayers;
+            this.note = NbsIo.readNote(this.reader, this.song.getVersion());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads all (remaining) notes of the next tick.<br>
+     * If the current tick has only been partially read by {@link #nextNote()}, the remaining notes of the current tick are read.
+     *
+     * @param notes The map to fill with the notes of the tick (layer to note). The map is cleared first.
+     * @return The tick or -1 if there are no more ticks.
+     * @throws IOException If an I/O error occurs
+     */
+    public int nextTick(final Map<Integer, NbsNote> notes) throws IOException {
+        notes.clear();
+        if (this.finished || (!this.inTick && !this.nextTickHeader())) {
+            return -1;
+        }
+
+        while (true) {
+            final short jumpLayers = this.reader.readShort();
+            if (jumpLayers == 0) {
+                break;
+            }
+            this.layer += jumpLayers;
+            this.note = NbsIo.readNote(this.reader, this.song.getVersion());
+            notes.put(this.layer, this.note);
+        }
+        this.inTick = false;
+        return this.tick;
+    }
+
+    /**
+     * Restarts reading from the first note.
+     *
+     * @throws IOException If an I/O error occurs
+     * @throws IllegalStateException If the reader reads from an input stream
+     */
+    public void rewind() throws IOException {
+        if (!this.canRewind()) {
+            throw new IllegalStateException("Cannot rewind a stream source");
+        }
+        this.reader = new BinaryReader(this.buffer, ByteOrder.LITTLE_ENDIAN);
+        NbsIo.readHeader(this.reader, new NbsSong(), NbsStringCodec.ISO_8859_1);
+        this.finished = false;
+        this.inTick = false;
+        this.tick = -1;
+        this.layer = -1;
+        this.note = null;
+    }
+
+    /**
+     * @return Whether the reader can be rewound.
+     */
+    public boolean canRewind() {
+        return this.buffer != null;
+    }
+
+    /**
+     * @return The song containing the header data, the base tempo and (if available) the layers and custom instruments. The song doesn't contain any notes.
+     */
+    public NbsSong getSong() {
+        return this.song;
+    }
+
+    /**
+     * @return Whether the layers and custom instruments of the song have been read.
+     */
+    public boolean hasLayerInfo() {
+        return this.hasLayerInfo;
+    }
+
+    /**
+     * @return The current tick.
+     */
+    public int getTick() {
+        return this.tick;
+    }
+
+    /**
+     * @return The layer of the current note.
+     */
+    public int getLayer() {
+        return this.layer;
+    }
+
+    /**
+     * @return The current note.
+     */
+    public NbsNote getNote() {
+        return this.note;
+    }
+
+    /**
+     * @return The last tick containing a note or -1 if it is not known yet.
+     */
+    public int getLastTick() {
+        return this.lastTick;
+    }
+
+    /**
+     * @return Whether all notes have been read.
+     */
+    public boolean isFinished() {
+        return this.finished;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.inputStream != null) {
+            this.inputStream.close();
+        }
+    }
+
+    private boolean nextTickHeader() throws IOException {
+        final short jumpTicks = this.reader.readShort();
+        if (jumpTicks == 0) {
+            this.finish();
+            return false;
+        }
+        this.tick += jumpTicks;
+        this.layer = -1;
+        this.inTick = true;
+        return true;
+    }
+
+    private void finish() throws IOException {
+        this.finished = true;
+        this.note = null;
+        if (!this.hasLayerInfo) {
+            this.lastTick = this.tick;
+            NbsIo.readLayersAndCustomInstruments(this.reader, this.song, NbsStringCodec.ISO_8859_1);
+            this.hasLayerInfo = true;
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.format.nbs;
+
+import net.raphimc.noteblocklib.format.nbs.model.NbsCustomInstrument;
+import net.raphimc.noteblocklib.format.nbs.model.NbsLayer;
+import net.raphimc.noteblocklib.format.nbs.model.NbsNote;
+import net.raphimc.noteblocklib.format.nbs.model.NbsSong;
+import net.raphimc.noteblocklib.model.event.Event;
+import net.raphimc.noteblocklib.model.note.Note;
+import net.raphimc.noteblocklib.model.song.GenericSong;
+import net.raphimc.noteblocklib.player.SongPlayer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A song player which is fed incrementally by a {@link NbsStreamReader}.<br>
+ * Ticks are read and converted just before they are played, so playback can start before the song has been read completely and only a small window of notes is kept in memory.<br>
+ * Seeking backwards requires a reader which can be rewound.<br>
+ * If the reader reads from an input stream, notes with custom instruments are skipped and the layer settings are ignored until the layers have been read at the end of the song.
+ */
+public abstract class NbsStreamSongPlayer extends SongPlayer {
+
+    private static final NbsLayer DEFAULT_LAYER = new NbsLayer();
+
+    private final NbsStreamReader reader;
+    private final Map<Integer, NbsNote> tickNotes = new HashMap<>();
+    private GenericSong window;
+    private int windowStart;
+    private int readTick;
+    private Map<NbsCustomInstrument, NbsCustomInstrument> customInstrumentMap;
+    private boolean hasSoloLayers;
+
+    public NbsStreamSongPlayer(final NbsStreamReader reader) {
+        super(reader.getSong());
+        this.reader = reader;
+        this.resetWindow();
+    }
+
+    /**
+     * @return The reader which feeds this player.
+     */
+    public NbsStreamReader getReader() {
+        return this.reader;
+    }
+
+    @Override
+    protected List<Note> getNotes(final int tick) {
+        this.readUntil(tick);
+        return this.window.getNotes().getOrEmpty(tick);
+    }
+
+    @Override
+    protected List<Event> getEvents(final int tick) {
+        this.readUntil(tick);
+        return this.window.getEvents().getOrEmpty(tick);
+    }
+
+    @Override
+    protected float getEffectiveTempo(final int tick) {
+        this.readUntil(tick);
+        return this.window.getTempoEvents().getEffectiveTempo(tick);
+    }
+
+    @Override
+    protected int getLengthInTicks() {
+        this.readUntil(this.getTick());
+        if (this.reader.getLastTick() >= 0 || this.reader.isFinished()) {
+            return this.reader.getLastTick() + 1;
+        }
+        return Integer.MAX_VALUE; // Not known until the whole song has been read
+    }
+
+    private void readUntil(final int tick) {
+        try {
+            if (tick < this.windowStart) {
+                this.reader.rewind();
+                this.resetWindow();
+            }
+            while (this.windowStart < tick) { // Drop the ticks which have already been played
+                this.window.getNotes().clearTick(this.windowStart);
+                this.window.getEvents().clearTick(this.windowStart);
+                this.windowStart = this.windowStart < this.readTick ? this.windowStart + 1 : tick;
+            }
+
+            while (this.readTick < tick && !this.reader.isFinished()) {
+                final int nextTick = this.reader.nextTick(this.tickNotes);
+                if (nextTick < 0) {
+                    break;
+                }
+                this.convertTick(nextTick);
+                if (nextTick < tick) { // Only keep the tempo changes of skipped ticks
+                    this.window.getNotes().clearTick(nextTick);
+                    this.window.getEvents().clearTick(nextTick);
+                }
+                this.readTick = nextTick;
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void convertTick(final int tick) {
+        final NbsSong song = this.reader.getSong();
+        if (this.customInstrumentMap == null && this.reader.hasLayerInfo()) {
+            this.customInstrumentMap = NbsConverter.createCustomInstrumentMap(song);
+            this.hasSoloLayers = NbsConverter.hasSoloLayers(song);
+        }
+
+        for (Map.Entry<Integer, NbsNote> entry : this.tickNotes.entrySet()) {
+            final NbsNote nbsNote = entry.getValue();
+            if (this.customInstrumentMap == null && nbsNote.getInstrument() >= song.getVanillaInstrumentCount()) {
+                continue; // Custom instruments are not known yet
+            }
+
+            final NbsLayer layer = song.getLayers().getOrDefault(entry.getKey(), DEFAULT_LAYER);
+            final Note note = NbsConverter.convertNote(song, tick, entry.getKey(), layer, nbsNote, this.hasSoloLayers, this.customInstrumentMap, this.window);
+            if (note != null) {
+                this.window.getNotes().add(tick, note);
+            }
+        }
+    }
+
+    private void resetWindow() {
+        this.window = new GenericSong();
+        this.window.getTempoEvents().set(0, this.reader.getSong().getTempo() / 100F);
+        this.windowStart = 0;
+        this.readTick = -1;
+    }
+
+}
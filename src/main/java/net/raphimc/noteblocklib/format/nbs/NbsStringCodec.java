@@ -0,0 +1,100 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.format.nbs;
+
+import net.raphimc.noteblocklib.util.io.BinaryReader;
+import net.raphimc.noteblocklib.util.io.BinaryWriter;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes and encodes the length prefixed strings of the NBS format.<br>
+ * The length prefix counts bytes, so a corrupt prefix is checked against a maximum length before anything is allocated.
+ */
+public final class NbsStringCodec {
+
+    public static final int DEFAULT_MAX_LENGTH = 1024 * 1024;
+
+    /**
+     * The charset used by Note Block Studio. Characters above 0xFF can't be written.
+     */
+    public static final NbsStringCodec ISO_8859_1 = new NbsStringCodec(StandardCharsets.ISO_8859_1, DEFAULT_MAX_LENGTH);
+
+    /**
+     * Allows non-Latin text, but isn't understood by older versions of Note Block Studio.
+     */
+    public static final NbsStringCodec UTF_8 = new NbsStringCodec(StandardCharsets.UTF_8, DEFAULT_MAX_LENGTH);
+
+    private final Charset charset;
+    private final int maxLength;
+
+    /**
+     * @param charset   The charset of the strings
+     * @param maxLength The maximum length of a string in bytes
+     */
+    public NbsStringCodec(final Charset charset, final int maxLength) {
+        if (maxLength < 0) {
+            throw new IllegalArgumentException("Max length must not be negative");
+        }
+        this.charset = charset;
+        this.maxLength = maxLength;
+    }
+
+    public String read(final BinaryReader reader) throws IOException {
+        final int length = reader.readInt();
+        if (length < 0 || length > this.maxLength) {
+            throw new IllegalStateException("String length out of range: " + length);
+        }
+        if (length == 0) {
+            return "";
+        }
+        return new String(reader.readBytes(length), 0, length, this.charset);
+    }
+
+    public void write(final BinaryWriter writer, final String string) throws IOException {
+        final byte[] bytes;
+        if (this.charset == StandardCharsets.ISO_8859_1) {
+            bytes = new byte[string.length()];
+            for (int i = 0; i < bytes.length; i++) {
+                final char c = string.charAt(i);
+                if (c > 0xFF) {
+                    throw new IllegalArgumentException("Character out of range for ISO-8859-1: " + c);
+                }
+                bytes[i] = (byte) c;
+            }
+        } else {
+            bytes = string.getBytes(this.charset);
+        }
+        if (bytes.length > this.maxLength) {
+            throw new IllegalArgumentException("String length out of range: " + bytes.length);
+        }
+        writer.writeInt(bytes.length);
+        writer.writeBytes(bytes);
+    }
+
+    public Charset getCharset() {
+        return this.charset;
+    }
+
+    public int getMaxLength() {
+        return this.maxLength;
+    }
+
+}
@@ -0,0 +1,193 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.format.nbs.model;
+
+/**
+ * The metadata of an NBS song, read without decoding the notes.
+ *
+ * @see net.raphimc.noteblocklib.format.nbs.NbsIo#readHeader(java.io.InputStream, String, boolean)
+ */
+public class NbsSongInfo {
+
+    private final NbsSong header;
+    private final int noteCount;
+    private final int lastTick;
+
+    /**
+     * @param header    A song which only contains the header data
+     * @param noteCount The amount of note blocks or -1 if the notes were not scanned
+     * @param lastTick  The last tick containing a note block or -1 if the notes were not scanned
+     */
+    public NbsSongInfo(final NbsSong header, final int noteCount, final int lastTick) {
+        this.header = header;
+        this.noteCount = noteCount;
+        this.lastTick = lastTick;
+    }
+
+    public String getFileName() {
+        return this.header.getFileName();
+    }
+
+    /**
+     * @return The version of the NBS format.
+     */
+    public int getVersion() {
+        return this.header.getVersion();
+    }
+
+    /**
+     * @return The length of the song as stored in the header, measured in ticks. Can be -1 if the nbsVersion did not support this field
+     */
+    public short getLength() {
+        return this.header.getLength();
+    }
+
+    /**
+     * @return The last layer with at least one note block in it, or the last layer that has had its name, volume or stereo changed.
+     */
+    public short getLayerCount() {
+        return this.header.getLayerCount();
+    }
+
+    public String getTitle() {
+        return this.header.getTitle();
+    }
+
+    public String getTitleOr(final String fallback) {
+        return this.header.getTitleOr(fallback);
+    }
+
+    public String getTitleOrFileName() {
+        return this.header.getTitleOrFileName();
+    }
+
+    public String getTitleOrFileNameOr(final String fallback) {
+        return this.header.getTitleOrFileNameOr(fallback);
+    }
+
+    public String getAuthor() {
+        return this.header.getAuthor();
+    }
+
+    public String getAuthorOr(final String fallback) {
+        return this.header.getAuthorOr(fallback);
+    }
+
+    public String getOriginalAuthor() {
+        return this.header.getOriginalAuthor();
+    }
+
+    public String getOriginalAuthorOr(final String fallback) {
+        return this.header.getOriginalAuthorOr(fallback);
+    }
+
+    public String getDescription() {
+        return this.header.getDescription();
+    }
+
+    public String getDescriptionOr(final String fallback) {
+        return this.header.getDescriptionOr(fallback);
+    }
+
+    /**
+     * @return The tempo of the song multiplied by 100 (for example, 1225 instead of 12.25). Measured in ticks per second.
+     */
+    public short getTempo() {
+        return this.header.getTempo();
+    }
+
+    /**
+     * @return The tempo of the song in ticks per second.
+     */
+    public float getTicksPerSecond() {
+        return this.header.getTempo() / 100F;
+    }
+
+    /**
+     * @return The time signature of the song. If this is 3, then the signature is 3/4.
+     */
+    public int getTimeSignature() {
+        return this.header.getTimeSignature();
+    }
+
+    /**
+     * @return If the song has been imported from a .mid or .schematic file, that file name is stored here.
+     */
+    public String getSourceFileName() {
+        return this.header.getSourceFileName();
+    }
+
+    /**
+     * @return Whether looping is on or off.
+     */
+    public boolean isLoop() {
+        return this.header.isLoop();
+    }
+
+    /**
+     * @return 0 = infinite. Other values mean the amount of times the song loops.
+     */
+    public int getMaxLoopCount() {
+        return this.header.getMaxLoopCount();
+    }
+
+    /**
+     * @return Determines which part of the song (in ticks) it loops back to.
+     */
+    public short getLoopStartTick() {
+        return this.header.getLoopStartTick();
+    }
+
+    /**
+     * @return Whether the note section has been scanned.
+     */
+    public boolean hasNoteInfo() {
+        return this.noteCount >= 0;
+    }
+
+    /**
+     * @return The amount of note blocks in the song or -1 if the notes were not scanned.
+     */
+    public int getNoteCount() {
+        return this.noteCount;
+    }
+
+    /**
+     * @return The last tick containing a note block or -1 if the notes were not scanned (or the song is empty).
+     */
+    public int getLastTick() {
+        return this.lastTick;
+    }
+
+    /**
+     * @return The length of the song in ticks or -1 if the notes were not scanned.
+     */
+    public int getLengthInTicks() {
+        return this.hasNoteInfo() ? this.lastTick + 1 : -1;
+    }
+
+    /**
+     * Tempo changers are not taken into account.
+     *
+     * @return The length of the song in milliseconds or -1 if the notes were not scanned.
+     */
+    public int getLengthInMilliseconds() {
+        return this.hasNoteInfo() ? (int) Math.ceil(this.getLengthInTicks() * 1000F / this.getTicksPerSecond()) : -1;
+    }
+
+}
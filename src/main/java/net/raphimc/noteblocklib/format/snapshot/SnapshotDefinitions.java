@@ -0,0 +1,50 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.format.snapshot;
+
+public final class SnapshotDefinitions {
+
+    public static final int MAGIC = 0x534C424E; // "NBLS" in little endian
+    public static final int VERSION = 1;
+
+    public static final int INSTRUMENT_MINECRAFT = 0;
+    public static final int INSTRUMENT_SHIFTED_MINECRAFT = 1;
+    public static final int INSTRUMENT_NBS_CUSTOM = 2;
+
+    public static final int EVENT_NBS_TOGGLE_RAINBOW = 0;
+    public static final int EVENT_NBS_SOUND_STOPPER = 1;
+    public static final int EVENT_NBS_SHOW_SAVE_POPUP = 2;
+    public static final int EVENT_NBS_TOGGLE_BACKGROUND_ACCENT = 3;
+
+    public static final int COLUMN_FLOAT = 0;
+    public static final int COLUMN_QUANTIZED = 1;
+
+    /**
+     * Quantized MIDI keys are stored in cents.
+     */
+    public static final int KEY_SCALE = 100;
+    /**
+     * Quantized volumes and pannings are stored in steps of 0.0001.
+     */
+    public static final int VOLUME_SCALE = 10000;
+    public static final int PANNING_SCALE = 10000;
+
+    private SnapshotDefinitions() {
+    }
+
+}
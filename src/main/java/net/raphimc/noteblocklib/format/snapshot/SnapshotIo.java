@@ -0,0 +1,430 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.format.snapshot;
+
+import net.raphimc.noteblocklib.format.minecraft.MinecraftInstrument;
+import net.raphimc.noteblocklib.format.minecraft.ShiftedMinecraftInstrument;
+import net.raphimc.noteblocklib.format.nbs.model.NbsCustomInstrument;
+import net.raphimc.noteblocklib.format.nbs.model.event.NbsShowSavePopupEvent;
+import net.raphimc.noteblocklib.format.nbs.model.event.NbsSoundStopperEvent;
+import net.raphimc.noteblocklib.format.nbs.model.event.NbsToggleBackgroundAccentEvent;
+import net.raphimc.noteblocklib.format.nbs.model.event.NbsToggleRainbowEvent;
+import net.raphimc.noteblocklib.model.event.Event;
+import net.raphimc.noteblocklib.model.note.ColumnarNotes;
+import net.raphimc.noteblocklib.model.note.Instrument;
+import net.raphimc.noteblocklib.model.note.Note;
+import net.raphimc.noteblocklib.model.song.GenericSong;
+import net.raphimc.noteblocklib.model.song.Song;
+import net.raphimc.noteblocklib.util.io.BinaryWriter;
+import net.raphimc.noteblocklib.util.io.IoUtil;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static net.raphimc.noteblocklib.format.snapshot.SnapshotDefinitions.*;
+
+/**
+ * Reads and writes snapshots of the general data of a song.<br>
+ * A snapshot stores the already converted notes in columns (delta encoded ticks, instrument dictionary indices, keys, volumes, pannings and group ids), so it can be loaded without running any format conversion again.
+ * Key, volume and panning columns are quantized to shorts if that is lossless for every note of the song, otherwise they are stored as floats.
+ * All sections are aligned to 4 bytes, so the columns of a memory-mapped snapshot are read with bulk copies instead of being parsed note by note.
+ */
+public final class SnapshotIo {
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private SnapshotIo() {
+    }
+
+    /**
+     * Reads a snapshot from the given file.<br>
+     * Large files are memory-mapped, small files are read into a heap buffer at once.
+     *
+     * @param path The path of the file
+     * @return The song
+     * @throws IOException If an I/O error occurs or the file is truncated
+     */
+    public static Song readSong(final Path path) throws IOException {
+        return readSong(IoUtil.readFile(path));
+    }
+
+    /**
+     * Reads a snapshot from the remaining bytes of the given buffer.<br>
+     * The position of the buffer is not modified.
+     *
+     * @param buffer The buffer
+     * @return The song
+     * @throws IOException If the data is truncated
+     */
+    public static Song readSong(final ByteBuffer buffer) throws IOException {
+        try {
+            return readSong0(buffer.slice().order(ByteOrder.LITTLE_ENDIAN));
+        } catch (final BufferUnderflowException e) {
+            throw new EOFException();
+        }
+    }
+
+    public static void writeSong(final Song song, final Path path) throws IOException {
+        try (OutputStream os = Files.newOutputStream(path)) {
+            writeSong(song, os);
+        }
+    }
+
+    public static void writeSong(final Song song, final OutputStream os) throws IOException {
+        final BinaryWriter writer = new BinaryWriter(os, ByteOrder.LITTLE_ENDIAN, BUFFER_SIZE);
+        writer.writeInt(MAGIC);
+        writer.writeInt(VERSION);
+        writeString(writer, song.getFileName());
+        writeString(writer, song.getTitle());
+        writeString(writer, song.getAuthor());
+        writeString(writer, song.getOriginalAuthor());
+        writeString(writer, song.getDescription());
+
+        final int[] tempoTicks = song.getTempoEvents().getTicks().stream().mapToInt(Integer::intValue).toArray();
+        writer.writeInt(tempoTicks.length);
+        for (int tick : tempoTicks) {
+            writer.writeInt(tick);
+            writer.writeFloat(song.getTempoEvents().get(tick));
+        }
+
+        final int[] eventTicks = song.getEvents().getTicks().stream().mapToInt(Integer::intValue).sorted().toArray();
+        writer.writeInt(song.getEvents().getEventCount());
+        for (int tick : eventTicks) {
+            for (Event event : song.getEvents().get(tick)) {
+                writer.writeInt(tick);
+                writeEvent(writer, event);
+            }
+        }
+
+        final int[] ticks = song.getNotes().getTicks().stream().mapToInt(Integer::intValue).sorted().toArray();
+        final int noteCount = song.getNotes().getNoteCount();
+        final List<Instrument> instruments = new ArrayList<>();
+        final Map<Instrument, Integer> instrumentIndexMap = new HashMap<>();
+        final short[] instrumentIndices = new short[noteCount];
+        final float[] midiKeys = new float[noteCount];
+        final float[] volumes = new float[noteCount];
+        final float[] pannings = new float[noteCount];
+        final int[] groupIds = new int[noteCount];
+        int noteIndex = 0;
+        for (int tick : ticks) {
+            for (Note note : song.getNotes().getReadOnly(tick)) {
+                Integer instrumentIndex = instrumentIndexMap.get(note.getInstrument());
+                if (instrumentIndex == null) {
+                    if (instruments.size() > 0xFFFF) {
+                        throw new IllegalArgumentException("Too many different instruments");
+                    }
+                    instrumentIndex = instruments.size();
+                    instrumentIndexMap.put(note.getInstrument(), instrumentIndex);
+                    instruments.add(note.getInstrument());
+                }
+                instrumentIndices[noteIndex] = instrumentIndex.shortValue();
+                midiKeys[noteIndex] = note.getMidiKey();
+                volumes[noteIndex] = note.getVolume();
+                pannings[noteIndex] = note.getPanning();
+                groupIds[noteIndex] = note.getGroupId();
+                noteIndex++;
+            }
+        }
+
+        writer.writeInt(instruments.size());
+        for (Instrument instrument : instruments) {
+            writeInstrument(writer, instrument);
+        }
+
+        writer.writeInt(noteCount);
+        writer.writeInt(ticks.length);
+        int lastTick = 0;
+        for (int tick : ticks) {
+            writer.writeInt(tick - lastTick);
+            lastTick = tick;
+        }
+        for (int tick : ticks) {
+            writer.writeInt(song.getNotes().getReadOnly(tick).size());
+        }
+        writeColumn(writer, midiKeys, KEY_SCALE);
+        writeColumn(writer, volumes, VOLUME_SCALE);
+        writeColumn(writer, pannings, PANNING_SCALE);
+        for (short instrumentIndex : instrumentIndices) {
+            writer.writeShort(instrumentIndex);
+        }
+        writePadding(writer, noteCount * 2);
+        for (int groupId : groupIds) {
+            writer.writeInt(groupId);
+        }
+        writer.flush();
+    }
+
+    private static Song readSong0(final ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalStateException("Not a NoteBlockLib snapshot");
+        }
+        final int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported snapshot version: " + version);
+        }
+        final Song song = new GenericSong(readString(buffer));
+        song.setTitle(readString(buffer));
+        song.setAuthor(readString(buffer));
+        song.setOriginalAuthor(readString(buffer));
+        song.setDescription(readString(buffer));
+
+        final int tempoEventCount = readCount(buffer, 8);
+        for (int i = 0; i < tempoEventCount; i++) {
+            song.getTempoEvents().set(buffer.getInt(), buffer.getFloat());
+        }
+
+        final int eventCount = readCount(buffer, 8);
+        for (int i = 0; i < eventCount; i++) {
+            final int tick = buffer.getInt();
+            song.getEvents().add(tick, readEvent(buffer));
+        }
+
+        final int instrumentCount = readCount(buffer, 8);
+        final List<Instrument> instruments = new ArrayList<>(instrumentCount);
+        for (int i = 0; i < instrumentCount; i++) {
+            instruments.add(readInstrument(buffer));
+        }
+
+        final int noteCount = readCount(buffer, 12);
+        final int tickCount = readCount(buffer, 8);
+        final int[] tickDeltas = new int[tickCount];
+        final int[] notesPerTick = new int[tickCount];
+        buffer.asIntBuffer().get(tickDeltas);
+        skip(buffer, tickCount * 4);
+        buffer.asIntBuffer().get(notesPerTick);
+        skip(buffer, tickCount * 4);
+        final int[] ticks = new int[noteCount];
+        int tick = 0;
+        int noteIndex = 0;
+        for (int i = 0; i < tickCount; i++) {
+            tick += tickDeltas[i];
+            if (notesPerTick[i] < 0 || notesPerTick[i] > noteCount - noteIndex) {
+                throw new IllegalStateException("Invalid note count at tick " + tick);
+            }
+            Arrays.fill(ticks, noteIndex, noteIndex + notesPerTick[i], tick);
+            noteIndex += notesPerTick[i];
+        }
+        if (noteIndex != noteCount) {
+            throw new IllegalStateException("Note count mismatch: " + noteIndex + " != " + noteCount);
+        }
+
+        final float[] midiKeys = readColumn(buffer, noteCount, KEY_SCALE);
+        final float[] volumes = readColumn(buffer, noteCount, VOLUME_SCALE);
+        final float[] pannings = readColumn(buffer, noteCount, PANNING_SCALE);
+        final short[] instrumentIndices = new short[noteCount];
+        buffer.asShortBuffer().get(instrumentIndices);
+        skip(buffer, align(noteCount * 2));
+        final int[] groupIds = new int[noteCount];
+        buffer.asIntBuffer().get(groupIds);
+        skip(buffer, noteCount * 4);
+
+        song.setNotes(new ColumnarNotes(instruments, ticks, instrumentIndices, midiKeys, volumes, pannings, groupIds));
+        return song;
+    }
+
+    private static void writeInstrument(final BinaryWriter writer, final Instrument instrument) throws IOException {
+        if (instrument instanceof MinecraftInstrument) {
+            writer.writeInt(INSTRUMENT_MINECRAFT);
+            writer.writeInt(((MinecraftInstrument) instrument).nbsId());
+        } else if (instrument instanceof ShiftedMinecraftInstrument) {
+            final ShiftedMinecraftInstrument shiftedInstrument = (ShiftedMinecraftInstrument) instrument;
+            writer.writeInt(INSTRUMENT_SHIFTED_MINECRAFT);
+            writer.writeInt(shiftedInstrument.getInstrument().nbsId());
+            writer.writeInt(shiftedInstrument.getOctavesShift());
+        } else if (instrument instanceof NbsCustomInstrument) {
+            final NbsCustomInstrument customInstrument = (NbsCustomInstrument) instrument;
+            writer.writeInt(INSTRUMENT_NBS_CUSTOM);
+            writeString(writer, customInstrument.getName());
+            writeString(writer, customInstrument.getSoundFilePath());
+            writer.writeInt(customInstrument.getPitch());
+            writer.writeInt(customInstrument.isPressKey() ? 1 : 0);
+        } else {
+            throw new IllegalArgumentException("Unsupported instrument: " + instrument.getClass().getName());
+        }
+    }
+
+    private static Instrument readInstrument(final ByteBuffer buffer) {
+        final int type = buffer.getInt();
+        switch (type) {
+            case INSTRUMENT_MINECRAFT:
+                return MinecraftInstrument.fromNbsId(buffer.getInt());
+            case INSTRUMENT_SHIFTED_MINECRAFT:
+                return ShiftedMinecraftInstrument.of(MinecraftInstrument.fromNbsId(buffer.getInt()), buffer.getInt());
+            case INSTRUMENT_NBS_CUSTOM:
+                final NbsCustomInstrument customInstrument = new NbsCustomInstrument();
+                customInstrument.setName(readString(buffer));
+                customInstrument.setSoundFilePath(readString(buffer));
+                customInstrument.setPitch(buffer.getInt());
+                customInstrument.setPressKey(buffer.getInt() != 0);
+                return customInstrument;
+            default:
+                throw new IllegalStateException("Unknown instrument type: " + type);
+        }
+    }
+
+    private static void writeEvent(final BinaryWriter writer, final Event event) throws IOException {
+        if (event instanceof NbsToggleRainbowEvent) {
+            writer.writeInt(EVENT_NBS_TOGGLE_RAINBOW);
+        } else if (event instanceof NbsSoundStopperEvent) {
+            final NbsSoundStopperEvent soundStopperEvent = (NbsSoundStopperEvent) event;
+            writer.writeInt(EVENT_NBS_SOUND_STOPPER);
+            writer.writeInt(soundStopperEvent.getStartLayer());
+            writer.writeInt(soundStopperEvent.getEndLayer());
+        } else if (event instanceof NbsShowSavePopupEvent) {
+            writer.writeInt(EVENT_NBS_SHOW_SAVE_POPUP);
+        } else if (event instanceof NbsToggleBackgroundAccentEvent) {
+            writer.writeInt(EVENT_NBS_TOGGLE_BACKGROUND_ACCENT);
+        } else {
+            throw new IllegalArgumentException("Unsupported event: " + event.getClass().getName());
+        }
+    }
+
+    private static Event readEvent(final ByteBuffer buffer) {
+        final int type = buffer.getInt();
+        switch (type) {
+            case EVENT_NBS_TOGGLE_RAINBOW:
+                return NbsToggleRainbowEvent.INSTANCE;
+            case EVENT_NBS_SOUND_STOPPER:
+                return new NbsSoundStopperEvent((short) buffer.getInt(), (short) buffer.getInt());
+            case EVENT_NBS_SHOW_SAVE_POPUP:
+                return NbsShowSavePopupEvent.INSTANCE;
+            case EVENT_NBS_TOGGLE_BACKGROUND_ACCENT:
+                return NbsToggleBackgroundAccentEvent.INSTANCE;
+            default:
+                throw new IllegalStateException("Unknown event type: " + type);
+        }
+    }
+
+    private static void writeColumn(final BinaryWriter writer, final float[] values, final int scale) throws IOException {
+        boolean quantizable = true;
+        for (float value : values) {
+            final int quantized = Math.round(value * scale);
+            if (quantized < Short.MIN_VALUE || quantized > Short.MAX_VALUE || quantized / (float) scale != value) {
+                quantizable = false;
+                break;
+            }
+        }
+
+        if (quantizable) {
+            writer.writeInt(COLUMN_QUANTIZED);
+            for (float value : values) {
+                writer.writeShort(Math.round(value * scale));
+            }
+            writePadding(writer, values.length * 2);
+        } else {
+            writer.writeInt(COLUMN_FLOAT);
+            for (float value : values) {
+                writer.writeFloat(value);
+            }
+        }
+    }
+
+    private static float[] readColumn(final ByteBuffer buffer, final int length, final int scale) {
+        final int encoding = buffer.getInt();
+        final float[] values = new float[length];
+        switch (encoding) {
+            case COLUMN_FLOAT:
+                buffer.asFloatBuffer().get(values);
+                skip(buffer, length * 4);
+                break;
+            case COLUMN_QUANTIZED:
+                final short[] quantized = new short[length];
+                buffer.asShortBuffer().get(quantized);
+                skip(buffer, align(length * 2));
+                for (int i = 0; i < length; i++) {
+                    values[i] = quantized[i] / (float) scale;
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown column encoding: " + encoding);
+        }
+        return values;
+    }
+
+    private static void writeString(final BinaryWriter writer, final String string) throws IOException {
+        if (string == null) {
+            writer.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writer.writeInt(bytes.length);
+        writer.writeBytes(bytes);
+        writePadding(writer, bytes.length);
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalStateException("String length out of range: " + length);
+        }
+        final String string;
+        if (buffer.hasArray()) {
+            string = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        } else {
+            final byte[] bytes = new byte[length];
+            buffer.duplicate().get(bytes);
+            string = new String(bytes, StandardCharsets.UTF_8);
+        }
+        skip(buffer, align(length));
+        return string;
+    }
+
+    /**
+     * Reads an element count and checks it against the remaining bytes, so a corrupt count can't allocate huge arrays.
+     */
+    private static int readCount(final ByteBuffer buffer, final int minBytesPerElement) {
+        final int count = buffer.getInt();
+        if (count < 0 || (long) count * minBytesPerElement > buffer.remaining()) {
+            throw new IllegalStateException("Element count out of range: " + count);
+        }
+        return count;
+    }
+
+    private static void writePadding(final BinaryWriter writer, final int length) throws IOException {
+        for (int i = length; i < align(length); i++) {
+            writer.writeByte((byte) 0);
+        }
+    }
+
+    private static void skip(final ByteBuffer buffer, final int length) {
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        buffer.position(buffer.position() + length);
+    }
+
+    private static int align(final int length) {
+        return (length + 3) & ~3;
+    }
+
+}
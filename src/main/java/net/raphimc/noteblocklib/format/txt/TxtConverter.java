@@ -64,7 +64,7 @@ public final class TxtConverter {
         newSong.copyGeneralData(song);
 
         for (int tick : song.getNotes().getTicks()) {
-            for (Note note : song.getNotes().get(tick)) {
+            for (Note note : song.getNotes().getReadOnly(tick)) {
                 if (note.getInstrument() instanceof MinecraftInstrument && note.getVolume() > 0) {
                     final TxtNote txtNote = new TxtNote();
                     txtNote.setInstrument(((MinecraftInstrument) note.getInstrument()).mcId());
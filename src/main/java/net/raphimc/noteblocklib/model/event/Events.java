@@ -30,6 +30,7 @@ import java.util.function.Predicate;
 public class Events {
 
     private final Map<Integer, List<Event>> events = new HashMap<>();
+    private boolean frozen;
 
     public List<Event> get(final int tick) {
         return this.events.get(tick);
@@ -40,6 +41,7 @@ public class Events {
     }
 
     public void set(final int tick, final List<Event> events) {
+        this.checkMutable();
         if (events != null) {
             this.events.put(tick, events);
         } else {
@@ -48,10 +50,12 @@ public class Events {
     }
 
     public void add(final int tick, final Event event) {
+        this.checkMutable();
         this.events.computeIfAbsent(tick, k -> new ArrayList<>()).add(event);
     }
 
     public void add(final int tick, final List<Event> events) {
+        this.checkMutable();
         this.events.computeIfAbsent(tick, k -> new ArrayList<>()).addAll(events);
     }
 
@@ -60,10 +64,12 @@ public class Events {
     }
 
     public void clearTick(final int tick) {
+        this.checkMutable();
         this.events.remove(tick);
     }
 
     public void clear() {
+        this.checkMutable();
         this.events.clear();
     }
 
@@ -101,6 +107,7 @@ public class Events {
      * @param eventPredicate The predicate
      */
     public void removeIf(final Predicate<Event> eventPredicate) {
+        this.checkMutable();
         for (List<Event> list : this.events.values()) {
             list.removeIf(eventPredicate);
         }
@@ -111,6 +118,7 @@ public class Events {
      * Removes empty event lists from the events map.
      */
     public void compact() {
+        this.checkMutable();
         this.events.entrySet().removeIf(entry -> entry.getValue().isEmpty());
     }
 
@@ -121,6 +129,26 @@ public class Events {
         return this.events.values().stream().mapToInt(List::size).sum();
     }
 
+    /**
+     * Creates an immutable copy of these events which can be shared between threads.<br>
+     * The events are copied, all methods which would modify the frozen events throw an {@link UnsupportedOperationException}.
+     *
+     * @return The frozen events or this if the events are already frozen
+     */
+    public Events freeze() {
+        if (this.frozen) {
+            return this;
+        }
+        final Events frozenEvents = this.copy();
+        frozenEvents.events.replaceAll((tick, eventList) -> Collections.unmodifiableList(eventList));
+        frozenEvents.frozen = true;
+        return frozenEvents;
+    }
+
+    public boolean isFrozen() {
+        return this.frozen;
+    }
+
     public Events copy() {
         final Events copyEvents = new Events();
         for (Map.Entry<Integer, List<Event>> entry : this.events.entrySet()) {
@@ -133,4 +161,10 @@ public class Events {
         return copyEvents;
     }
 
+    private void checkMutable() {
+        if (this.frozen) {
+            throw new UnsupportedOperationException("Events are frozen");
+        }
+    }
+
 }
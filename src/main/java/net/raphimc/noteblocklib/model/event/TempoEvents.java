@@ -17,7 +17,9 @@
  */
 package net.raphimc.noteblocklib.model.event;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeMap;
 
@@ -26,6 +28,8 @@ public class TempoEvents {
     private static final float DEFAULT_TEMPO = 20F;
 
     private final TreeMap<Integer, Float> tempoEvents = new TreeMap<>();
+    private volatile TempoMap tempoMap;
+    private boolean frozen;
 
     public TempoEvents() {
         this.tempoEvents.put(0, DEFAULT_TEMPO);
@@ -45,7 +49,9 @@ public class TempoEvents {
     }
 
     public void set(final int tick, final float tempo) {
+        this.checkMutable();
         this.tempoEvents.put(tick, tempo);
+        this.tempoMap = null;
     }
 
     public SortedSet<Integer> getTicks() {
@@ -53,16 +59,51 @@ public class TempoEvents {
     }
 
     public void remove(final int tick) {
+        this.checkMutable();
         if (tick == 0) {
             throw new IllegalArgumentException("Cannot remove the initial tempo event");
         }
 
-        this.tempoEvents.remove(tick);
+        if (this.tempoEvents.remove(tick) != null) {
+            this.tempoMap = null;
+        }
     }
 
     public void clear() {
+        this.checkMutable();
         this.tempoEvents.clear();
         this.tempoEvents.put(0, DEFAULT_TEMPO);
+        this.tempoMap = null;
+    }
+
+    /**
+     * Converts the given tick to milliseconds by taking all tempo changes before it into account.<br>
+     * Uses a cached tempo map, so the conversion is a binary search over the tempo changes.
+     *
+     * @param tick The tick
+     * @return The time in milliseconds at which the given tick starts.
+     */
+    public double tickToMilliseconds(final int tick) {
+        final TempoMap tempoMap = this.getTempoMap();
+        final int index = tempoMap.getSegmentIndex(tick);
+        return tempoMap.milliseconds[index] + (tick - tempoMap.ticks[index]) * 1000D / tempoMap.tempos[index];
+    }
+
+    /**
+     * Converts the given time in milliseconds to the nearest tick by taking all tempo changes into account.<br>
+     * Uses a cached tempo map, so the conversion is a binary search over the tempo changes.
+     *
+     * @param milliseconds The time in milliseconds
+     * @return The tick which is played at the given time.
+     */
+    public int millisecondsToTick(final double milliseconds) {
+        final TempoMap tempoMap = this.getTempoMap();
+        int index = Arrays.binarySearch(tempoMap.milliseconds, milliseconds);
+        if (index < 0) {
+            index = -(index + 1);
+        }
+        index = Math.max(index - 1, 0); // Use the segment which ends at or after the given time
+        return tempoMap.ticks[index] + (int) Math.round((milliseconds - tempoMap.milliseconds[index]) / 1000D * tempoMap.tempos[index]);
     }
 
     /**
@@ -82,10 +123,80 @@ public class TempoEvents {
         return tempoRange[0] == tempoRange[1] ? String.format("%.2f", tempoRange[0]) : String.format("%.2f", tempoRange[0]) + " - " + String.format("%.2f", tempoRange[1]);
     }
 
+    private TempoMap getTempoMap() {
+        TempoMap tempoMap = this.tempoMap;
+        if (tempoMap == null) {
+            tempoMap = new TempoMap(this.tempoEvents);
+            this.tempoMap = tempoMap;
+        }
+        return tempoMap;
+    }
+
+    /**
+     * Creates an immutable copy of these tempo events which can be shared between threads.<br>
+     * All methods which would modify the frozen tempo events throw an {@link UnsupportedOperationException}.
+     *
+     * @return The frozen tempo events or this if the tempo events are already frozen
+     */
+    public TempoEvents freeze() {
+        if (this.frozen) {
+            return this;
+        }
+        final TempoEvents frozenTempoEvents = this.copy();
+        frozenTempoEvents.getTempoMap(); // Compile the tempo map upfront
+        frozenTempoEvents.frozen = true;
+        return frozenTempoEvents;
+    }
+
+    public boolean isFrozen() {
+        return this.frozen;
+    }
+
     public TempoEvents copy() {
         final TempoEvents copyTempoEvents = new TempoEvents();
         copyTempoEvents.tempoEvents.putAll(this.tempoEvents);
         return copyTempoEvents;
     }
 
+    private void checkMutable() {
+        if (this.frozen) {
+            throw new UnsupportedOperationException("Tempo events are frozen");
+        }
+    }
+
+    /**
+     * Prefix-summed tempo segments. Segment i starts at ticks[i] and milliseconds[i] and runs with tempos[i] until the next segment.
+     */
+    private static final class TempoMap {
+
+        private final int[] ticks;
+        private final float[] tempos;
+        private final double[] milliseconds;
+
+        private TempoMap(final TreeMap<Integer, Float> tempoEvents) {
+            this.ticks = new int[tempoEvents.size()];
+            this.tempos = new float[tempoEvents.size()];
+            this.milliseconds = new double[tempoEvents.size()];
+
+            int i = 0;
+            for (Map.Entry<Integer, Float> entry : tempoEvents.entrySet()) {
+                this.ticks[i] = entry.getKey();
+                this.tempos[i] = entry.getValue();
+                if (i > 0) {
+                    this.milliseconds[i] = this.milliseconds[i - 1] + (this.ticks[i] - this.ticks[i - 1]) * 1000D / this.tempos[i - 1];
+                }
+                i++;
+            }
+        }
+
+        private int getSegmentIndex(final int tick) {
+            final int index = Arrays.binarySearch(this.ticks, tick);
+            if (index >= 0) {
+                return index;
+            }
+            return Math.max(-(index + 1) - 1, 0);
+        }
+
+    }
+
 }
@@ -0,0 +1,710 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.model.note;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A {@link Notes} implementation which stores the notes in parallel primitive arrays sorted by tick instead of lists of note objects.<br>
+ * Uses about 22 bytes per note, which makes it suitable for songs with millions of notes (e.g. large MIDI imports).<br>
+ * The notes returned by this class are lightweight views of the stored data, changes made through their setters are written back directly.
+ * The lists returned by {@link #get(int)} are read-only and, like the views, only valid until notes are added or removed.
+ * The note passed to {@link #forEach(Consumer)}, {@link #testEach(Predicate)} and {@link #removeIf(Predicate)} is reused, use {@link Note#copy()} to keep it.
+ */
+public class ColumnarNotes extends Notes {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_INSTRUMENT_COUNT = 0xFFFF + 1;
+
+    private final List<Instrument> instruments = new ArrayList<>();
+    private final Map<Instrument, Integer> instrumentIndexMap = new HashMap<>();
+
+    private int size;
+    private int[] ticks;
+    private short[] instrumentIndices;
+    private float[] midiKeys;
+    private float[] volumes;
+    private float[] pannings;
+    private int[] groupIds;
+    private boolean sorted = true;
+    private boolean frozen;
+    private int[] distinctTicks; // Cached until the ticks change
+    private Set<Integer> tickSet;
+
+    public ColumnarNotes() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ColumnarNotes(final int initialCapacity) {
+        super(null);
+        this.allocate(Math.max(initialCapacity, 1));
+    }
+
+    /**
+     * Creates a columnar copy of the given notes.
+     *
+     * @param notes The notes to copy
+     */
+    public ColumnarNotes(final Notes notes) {
+        this(notes.getNoteCount());
+        for (int tick : notes.getTicks()) {
+            this.add(tick, notes.getReadOnly(tick));
+        }
+    }
+
+    /**
+     * Creates notes which take ownership of the given columns without copying them.<br>
+     * All columns must have the same length. The instrument indices are unsigned indices into the instrument list.
+     *
+     * @param instruments       The distinct instruments of the notes
+     * @param ticks             The tick of each note
+     * @param instrumentIndices The instrument index of each note
+     * @param midiKeys          The MIDI key of each note
+     * @param volumes           The volume of each note
+     * @param pannings          The panning of each note
+     * @param groupIds          The group id of each note
+     */
+    public ColumnarNotes(final List<Instrument> instruments, final int[] ticks, final short[] instrumentIndices, final float[] midiKeys, final float[] volumes, final float[] pannings, final int[] groupIds) {
+        super(null);
+        final int size = ticks.length;
+        if (instrumentIndices.length != size || midiKeys.length != size || volumes.length != size || pannings.length != size || groupIds.length != size) {
+            throw new IllegalArgumentException("All columns must have the same length");
+        }
+        if (instruments.size() > MAX_INSTRUMENT_COUNT) {
+            throw new IllegalArgumentException("Too many different instruments");
+        }
+        for (Instrument instrument : instruments) {
+            if (this.instrumentIndexMap.putIfAbsent(instrument, this.instruments.size()) != null) {
+                throw new IllegalArgumentException("Duplicate instrument: " + instrument);
+            }
+            this.instruments.add(instrument);
+        }
+        for (int i = 0; i < size; i++) {
+            if ((instrumentIndices[i] & 0xFFFF) >= instruments.size()) {
+                throw new IllegalArgumentException("Instrument index out of range: " + (instrumentIndices[i] & 0xFFFF));
+            }
+            if (i > 0 && ticks[i] < ticks[i - 1]) {
+                this.sorted = false;
+            }
+        }
+        this.ticks = ticks;
+        this.instrumentIndices = instrumentIndices;
+        this.midiKeys = midiKeys;
+        this.volumes = volumes;
+        this.pannings = pannings;
+        this.groupIds = groupIds;
+        this.size = size;
+        if (size == 0) {
+            this.allocate(1);
+        }
+    }
+
+    @Override
+    public List<Note> get(final int tick) {
+        this.ensureSorted();
+        final int from = this.lowerBound(tick);
+        final int to = this.upperBound(tick);
+        return from == to ? null : new TickView(from, to);
+    }
+
+    @Override
+    public List<Note> getOrEmpty(final int tick) {
+        final List<Note> notes = this.get(tick);
+        return notes != null ? notes : Collections.emptyList();
+    }
+
+    @Override
+    public List<Note> getReadOnly(final int tick) {
+        return this.get(tick);
+    }
+
+    @Override
+    public void set(final int tick, final List<Note> notes) {
+        this.checkMutable();
+        final List<Note> copy = notes != null ? new ArrayList<>(notes) : null; // The list might be a view of this tick
+        this.clearTick(tick);
+        if (copy != null) {
+            this.add(tick, copy);
+        }
+    }
+
+    @Override
+    public void add(final int tick, final Note note) {
+        this.checkMutable();
+        final int instrumentIndex = this.getInstrumentIndex(note.getInstrument());
+        final float midiKey = note.getMidiKey();
+        final float volume = note.getVolume();
+        final float panning = note.getPanning();
+        final int groupId = note.getGroupId();
+
+        if (this.size == this.ticks.length) {
+            this.allocate(this.size + (this.size >> 1) + 1);
+        }
+        if (this.size > 0 && tick < this.ticks[this.size - 1]) {
+            this.sorted = false;
+        }
+        this.ticksChanged();
+        this.ticks[this.size] = tick;
+        this.instrumentIndices[this.size] = (short) instrumentIndex;
+        this.midiKeys[this.size] = midiKey;
+        this.volumes[this.size] = volume;
+        this.pannings[this.size] = panning;
+        this.groupIds[this.size] = groupId;
+        this.size++;
+    }
+
+    @Override
+    public void add(final int tick, final List<Note> notes) {
+        for (Note note : notes) {
+            this.add(tick, note);
+        }
+    }
+
+    /**
+     * @return The ticks which contain at least one note in ascending order. The set is cached until the ticks change and isn't affected by later changes.
+     */
+    @Override
+    public Set<Integer> getTicks() {
+        if (this.tickSet == null) {
+            this.tickSet = new TickSet(this.getDistinctTicks());
+        }
+        return this.tickSet;
+    }
+
+    @Override
+    public void moveTicks(final int[] fromTicks, final int[] toTicks) {
+        this.checkMutable();
+        if (fromTicks.length != toTicks.length) {
+            throw new IllegalArgumentException("fromTicks and toTicks must have the same length");
+        }
+
+        this.ensureSorted();
+        this.ticksChanged();
+        int tickIndex = 0;
+        for (int i = 0; i < this.size; i++) {
+            final int tick = this.ticks[i];
+            while (tickIndex < fromTicks.length && fromTicks[tickIndex] < tick) {
+                tickIndex++;
+            }
+            if (tickIndex < fromTicks.length && fromTicks[tickIndex] == tick) {
+                this.ticks[i] = toTicks[tickIndex];
+            }
+            if (i != 0 && this.ticks[i] < this.ticks[i - 1]) {
+                this.sorted = false;
+            }
+        }
+    }
+
+    @Override
+    public void clearTick(final int tick) {
+        this.checkMutable();
+        this.ensureSorted();
+        final int from = this.lowerBound(tick);
+        final int to = this.upperBound(tick);
+        if (from != to) {
+            this.removeRange(from, to);
+        }
+    }
+
+    @Override
+    public void clear() {
+        this.checkMutable();
+        this.size = 0;
+        this.sorted = true;
+        this.ticksChanged();
+        this.instruments.clear();
+        this.instrumentIndexMap.clear();
+    }
+
+    @Override
+    public void forEach(final Consumer<Note> noteConsumer) {
+        final ColumnarNote cursor = new ColumnarNote();
+        for (int i = 0; i < this.size; i++) {
+            cursor.index = i;
+            noteConsumer.accept(cursor);
+        }
+    }
+
+    @Override
+    public boolean testEach(final Predicate<Note> notePredicate) {
+        final ColumnarNote cursor = new ColumnarNote();
+        for (int i = 0; i < this.size; i++) {
+            cursor.index = i;
+            if (notePredicate.test(cursor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void removeIf(final Predicate<Note> notePredicate) {
+        this.checkMutable();
+        final ColumnarNote cursor = new ColumnarNote();
+        int newSize = 0;
+        for (int i = 0; i < this.size; i++) {
+            cursor.index = i;
+            if (!notePredicate.test(cursor)) {
+                this.move(i, newSize++);
+            }
+        }
+        this.size = newSize;
+        this.ticksChanged();
+    }
+
+    @Override
+    public void removeDoubleNotes() {
+        this.checkMutable();
+        this.ensureSorted();
+        final Set<NoteValue> tickNotes = new HashSet<>();
+        int newSize = 0;
+        for (int i = 0; i < this.size; i++) {
+            if (i == 0 || this.ticks[i] != this.ticks[i - 1]) {
+                tickNotes.clear();
+            }
+            if (tickNotes.add(new NoteValue(this.instrumentIndices[i], this.midiKeys[i], this.volumes[i], this.pannings[i]))) {
+                this.move(i, newSize++);
+            }
+        }
+        this.size = newSize;
+        this.ticksChanged();
+    }
+
+    @Override
+    void transform(final NoteTransformPipeline pipeline, final ForkJoinPool pool) {
+        pipeline.applyPerStage(this); // The removeIf pass already visits every note only once per run of note stages
+    }
+
+    /**
+     * Trims the capacity of the arrays to the amount of notes.
+     */
+    @Override
+    public void compact() {
+        if (!this.frozen && this.size != this.ticks.length) { // Frozen notes are already compact
+            this.allocate(Math.max(this.size, 1));
+        }
+    }
+
+    @Override
+    public int getLastTick() {
+        if (this.size == 0) {
+            return 0;
+        }
+        this.ensureSorted();
+        return this.ticks[this.size - 1];
+    }
+
+    @Override
+    public int getNoteCount() {
+        return this.size;
+    }
+
+    @Override
+    public int getTickCount() {
+        return this.getDistinctTicks().length;
+    }
+
+    /**
+     * Creates an immutable, sorted and compact copy of these notes.<br>
+     * The frozen notes can be read by multiple threads at once. All methods which would modify them (including the setters of the returned notes) throw an {@link UnsupportedOperationException}.
+     *
+     * @return The frozen notes or this if the notes are already frozen
+     */
+    @Override
+    public ColumnarNotes freeze() {
+        if (this.frozen) {
+            return this;
+        }
+        final ColumnarNotes frozenNotes = this.copy();
+        frozenNotes.ensureSorted();
+        frozenNotes.compact();
+        frozenNotes.getTicks(); // Fill the tick cache upfront, frozen notes might be read by multiple threads
+        frozenNotes.frozen = true;
+        return frozenNotes;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return this.frozen;
+    }
+
+    /**
+     * Creates a mutable copy of these notes. Copies of frozen notes are not frozen.
+     *
+     * @return The copy
+     */
+    @Override
+    public ColumnarNotes copy() {
+        final ColumnarNotes copyNotes = new ColumnarNotes(this.size);
+        for (Instrument instrument : this.instruments) {
+            final Instrument copyInstrument = instrument.copy();
+            copyNotes.instrumentIndexMap.put(copyInstrument, copyNotes.instruments.size());
+            copyNotes.instruments.add(copyInstrument);
+        }
+        System.arraycopy(this.ticks, 0, copyNotes.ticks, 0, this.size);
+        System.arraycopy(this.instrumentIndices, 0, copyNotes.instrumentIndices, 0, this.size);
+        System.arraycopy(this.midiKeys, 0, copyNotes.midiKeys, 0, this.size);
+        System.arraycopy(this.volumes, 0, copyNotes.volumes, 0, this.size);
+        System.arraycopy(this.pannings, 0, copyNotes.pannings, 0, this.size);
+        System.arraycopy(this.groupIds, 0, copyNotes.groupIds, 0, this.size);
+        copyNotes.size = this.size;
+        copyNotes.sorted = this.sorted;
+        copyNotes.distinctTicks = this.distinctTicks; // Never modified, only replaced
+        copyNotes.tickSet = this.tickSet;
+        return copyNotes;
+    }
+
+    private void checkMutable() {
+        if (this.frozen) {
+            throw new UnsupportedOperationException("Notes are frozen");
+        }
+    }
+
+    private int getInstrumentIndex(final Instrument instrument) {
+        if (instrument == null) {
+            throw new IllegalArgumentException("Instrument cannot be null");
+        }
+        final Integer index = this.instrumentIndexMap.get(instrument);
+        if (index != null) {
+            return index;
+        }
+        if (this.instruments.size() >= MAX_INSTRUMENT_COUNT) {
+            throw new IllegalStateException("Too many different instruments");
+        }
+        this.instrumentIndexMap.put(instrument, this.instruments.size());
+        this.instruments.add(instrument);
+        return this.instruments.size() - 1;
+    }
+
+    private int[] getDistinctTicks() {
+        if (this.distinctTicks == null) {
+            this.ensureSorted();
+            int tickCount = 0;
+            for (int i = 0; i < this.size; i++) {
+                if (i == 0 || this.ticks[i] != this.ticks[i - 1]) {
+                    tickCount++;
+                }
+            }
+            final int[] distinctTicks = new int[tickCount];
+            int tickIndex = 0;
+            for (int i = 0; i < this.size; i++) {
+                if (i == 0 || this.ticks[i] != this.ticks[i - 1]) {
+                    distinctTicks[tickIndex++] = this.ticks[i];
+                }
+            }
+            this.distinctTicks = distinctTicks;
+        }
+        return this.distinctTicks;
+    }
+
+    private void ticksChanged() {
+        this.distinctTicks = null;
+        this.tickSet = null;
+    }
+
+    private void allocate(final int capacity) {
+        final int length = Math.min(this.size, capacity);
+        this.ticks = this.ticks == null ? new int[capacity] : Arrays.copyOf(this.ticks, capacity);
+        this.instrumentIndices = this.instrumentIndices == null ? new short[capacity] : Arrays.copyOf(this.instrumentIndices, capacity);
+        this.midiKeys = this.midiKeys == null ? new float[capacity] : Arrays.copyOf(this.midiKeys, capacity);
+        this.volumes = this.volumes == null ? new float[capacity] : Arrays.copyOf(this.volumes, capacity);
+        this.pannings = this.pannings == null ? new float[capacity] : Arrays.copyOf(this.pannings, capacity);
+        this.groupIds = this.groupIds == null ? new int[capacity] : Arrays.copyOf(this.groupIds, capacity);
+        this.size = length;
+    }
+
+    private void ensureSorted() {
+        if (this.sorted) {
+            return;
+        }
+
+        final long[] keys = new long[this.size]; // Tick in the upper bits, index in the lower bits to keep the sort stable
+        for (int i = 0; i < this.size; i++) {
+            keys[i] = ((long) this.ticks[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        final int[] ticks = new int[this.ticks.length];
+        final short[] instrumentIndices = new short[this.ticks.length];
+        final float[] midiKeys = new float[this.ticks.length];
+        final float[] volumes = new float[this.ticks.length];
+        final float[] pannings = new float[this.ticks.length];
+        final int[] groupIds = new int[this.ticks.length];
+        for (int i = 0; i < this.size; i++) {
+            final int index = (int) keys[i];
+            ticks[i] = this.ticks[index];
+            instrumentIndices[i] = this.instrumentIndices[index];
+            midiKeys[i] = this.midiKeys[index];
+            volumes[i] = this.volumes[index];
+            pannings[i] = this.pannings[index];
+            groupIds[i] = this.groupIds[index];
+        }
+        this.ticks = ticks;
+        this.instrumentIndices = instrumentIndices;
+        this.midiKeys = midiKeys;
+        this.volumes = volumes;
+        this.pannings = pannings;
+        this.groupIds = groupIds;
+        this.sorted = true;
+    }
+
+    private int lowerBound(final int tick) {
+        int low = 0;
+        int high = this.size;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (this.ticks[mid] < tick) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(final int tick) {
+        int low = 0;
+        int high = this.size;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (this.ticks[mid] <= tick) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void move(final int from, final int to) {
+        if (from != to) {
+            this.ticks[to] = this.ticks[from];
+            this.instrumentIndices[to] = this.instrumentIndices[from];
+            this.midiKeys[to] = this.midiKeys[from];
+            this.volumes[to] = this.volumes[from];
+            this.pannings[to] = this.pannings[from];
+            this.groupIds[to] = this.groupIds[from];
+        }
+    }
+
+    private void removeRange(final int from, final int to) {
+        final int length = this.size - to;
+        System.arraycopy(this.ticks, to, this.ticks, from, length);
+        System.arraycopy(this.instrumentIndices, to, this.instrumentIndices, from, length);
+        System.arraycopy(this.midiKeys, to, this.midiKeys, from, length);
+        System.arraycopy(this.volumes, to, this.volumes, from, length);
+        System.arraycopy(this.pannings, to, this.pannings, from, length);
+        System.arraycopy(this.groupIds, to, this.groupIds, from, length);
+        this.size -= to - from;
+        this.ticksChanged();
+    }
+
+    /**
+     * A note which reads and writes the data at an index of the arrays.
+     */
+    private final class ColumnarNote extends Note {
+
+        private int index;
+
+        private ColumnarNote() {
+        }
+
+        private ColumnarNote(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int getGroupId() {
+            return ColumnarNotes.this.groupIds[this.index];
+        }
+
+        @Override
+        public Note setGroupId(final int groupId) {
+            ColumnarNotes.this.checkMutable();
+            ColumnarNotes.this.groupIds[this.index] = groupId;
+            return this;
+        }
+
+        @Override
+        public Instrument getInstrument() {
+            return ColumnarNotes.this.instruments.get(ColumnarNotes.this.instrumentIndices[this.index] & 0xFFFF);
+        }
+
+        @Override
+        public Note setInstrument(final Instrument instrument) {
+            ColumnarNotes.this.checkMutable();
+            ColumnarNotes.this.instrumentIndices[this.index] = (short) ColumnarNotes.this.getInstrumentIndex(instrument);
+            return this;
+        }
+
+        @Override
+        public float getMidiKey() {
+            return ColumnarNotes.this.midiKeys[this.index];
+        }
+
+        @Override
+        public Note setMidiKey(final float midiKey) {
+            ColumnarNotes.this.checkMutable();
+            super.setMidiKey(midiKey); // Validate
+            ColumnarNotes.this.midiKeys[this.index] = midiKey;
+            return this;
+        }
+
+        @Override
+        public float getVolume() {
+            return ColumnarNotes.this.volumes[this.index];
+        }
+
+        @Override
+        public Note setVolume(final float volume) {
+            ColumnarNotes.this.checkMutable();
+            super.setVolume(volume); // Validate
+            ColumnarNotes.this.volumes[this.index] = volume;
+            return this;
+        }
+
+        @Override
+        public float getPanning() {
+            return ColumnarNotes.this.pannings[this.index];
+        }
+
+        @Override
+        public Note setPanning(final float panning) {
+            ColumnarNotes.this.checkMutable();
+            super.setPanning(panning); // Validate
+            ColumnarNotes.this.pannings[this.index] = panning;
+            return this;
+        }
+
+    }
+
+    /**
+     * A read-only set of sorted distinct ticks.
+     */
+    private static final class TickSet extends AbstractSet<Integer> {
+
+        private final int[] ticks;
+
+        private TickSet(final int[] ticks) {
+            this.ticks = ticks;
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            return o instanceof Integer && Arrays.binarySearch(this.ticks, (Integer) o) >= 0;
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            return new Iterator<Integer>() {
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return this.index < TickSet.this.ticks.length;
+                }
+
+                @Override
+                public Integer next() {
+                    if (!this.hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return TickSet.this.ticks[this.index++];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return this.ticks.length;
+        }
+
+    }
+
+    private final class TickView extends AbstractList<Note> implements RandomAccess {
+
+        private final int from;
+        private final int to;
+
+        private TickView(final int from, final int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Note get(final int index) {
+            if (index < 0 || index >= this.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size());
+            }
+            return new ColumnarNote(this.from + index);
+        }
+
+        @Override
+        public int size() {
+            return this.to - this.from;
+        }
+
+    }
+
+    private static final class NoteValue {
+
+        private final short instrumentIndex;
+        private final float midiKey;
+        private final float volume;
+        private final float panning;
+
+        private NoteValue(final short instrumentIndex, final float midiKey, final float volume, final float panning) {
+            this.instrumentIndex = instrumentIndex;
+            this.midiKey = midiKey;
+            this.volume = volume;
+            this.panning = panning;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof NoteValue)) {
+                return false;
+            }
+            final NoteValue that = (NoteValue) o;
+            return this.instrumentIndex == that.instrumentIndex && Float.compare(this.midiKey, that.midiKey) == 0 && Float.compare(this.volume, that.volume) == 0 && Float.compare(this.panning, that.panning) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.instrumentIndex, this.midiKey, this.volume, this.panning);
+        }
+
+    }
+
+}
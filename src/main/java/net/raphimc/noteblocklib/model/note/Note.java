@@ -100,7 +100,7 @@ public class Note {
      * @return The key of the note in the Minecraft Note Block range (0-24). The center key (F#4) is 12. May be out of range, if the note has not been transposed.
      */
     public int getMcKey() {
-        return Math.round(this.midiKey - MinecraftDefinitions.LOWEST_MIDI_KEY);
+        return Math.round(this.getMidiKey() - MinecraftDefinitions.LOWEST_MIDI_KEY);
     }
 
     /**
@@ -119,7 +119,7 @@ public class Note {
      * @return The key of the note in the Minecraft Note Block Studio range (0-87). The center key (F#4) is 45. May be out of range, if the note has not been transposed.
      */
     public int getNbsKey() {
-        return Math.round(this.midiKey - NbsDefinitions.LOWEST_MIDI_KEY);
+        return Math.round(this.getMidiKey() - NbsDefinitions.LOWEST_MIDI_KEY);
     }
 
     /**
@@ -136,8 +136,9 @@ public class Note {
      * @return The fractional part of the note key (-0.5F = 50% lower, 0.0F = normal, 0.5F = 50% higher). Only useful if you need the key as an integer and the fine-pitch separately.
      */
     public float getFractionalKeyPart() {
-        final int roundedKey = Math.round(this.midiKey);
-        return this.midiKey - roundedKey;
+        final float midiKey = this.getMidiKey();
+        final int roundedKey = Math.round(midiKey);
+        return midiKey - roundedKey;
     }
 
     /**
@@ -146,7 +147,7 @@ public class Note {
      * @return The pitch of the note to use when playing the sample. (1.0F = normal speed, 2.0F = double speed, 0.5F = half speed). The center key (F#4) is 1.0F.
      */
     public float getPitch() {
-        return (float) Math.pow(2D, (double) (this.midiKey - MidiDefinitions.F_SHARP_4_KEY) / MidiDefinitions.KEYS_PER_OCTAVE);
+        return (float) Math.pow(2D, (double) (this.getMidiKey() - MidiDefinitions.F_SHARP_4_KEY) / MidiDefinitions.KEYS_PER_OCTAVE);
     }
 
     /**
@@ -204,31 +205,32 @@ public class Note {
      * @return If the note is outside the vanilla Minecraft octave range.
      */
     public boolean isOutsideMinecraftOctaveRange() {
-        return this.midiKey < MinecraftDefinitions.LOWEST_MIDI_KEY || this.midiKey > MinecraftDefinitions.HIGHEST_MIDI_KEY;
+        final float midiKey = this.getMidiKey();
+        return midiKey < MinecraftDefinitions.LOWEST_MIDI_KEY || midiKey > MinecraftDefinitions.HIGHEST_MIDI_KEY;
     }
 
     public Note copy() {
         final Note copyNote = new Note();
-        copyNote.groupId = this.groupId;
-        copyNote.instrument = this.instrument.copy();
-        copyNote.midiKey = this.midiKey;
-        copyNote.volume = this.volume;
-        copyNote.panning = this.panning;
+        copyNote.groupId = this.getGroupId();
+        copyNote.instrument = this.getInstrument().copy();
+        copyNote.midiKey = this.getMidiKey();
+        copyNote.volume = this.getVolume();
+        copyNote.panning = this.getPanning();
         return copyNote;
     }
 
     @Override
     public boolean equals(final Object o) {
-        if (o == null || getClass() != o.getClass()) {
+        if (!(o instanceof Note)) { // Subclasses are views of the same data (e.g. notes of ColumnarNotes)
             return false;
         }
         final Note note = (Note) o;
-        return Float.compare(this.midiKey, note.midiKey) == 0 && Float.compare(this.volume, note.volume) == 0 && Float.compare(this.panning, note.panning) == 0 && Objects.equals(this.instrument, note.instrument);
+        return Float.compare(this.getMidiKey(), note.getMidiKey()) == 0 && Float.compare(this.getVolume(), note.getVolume()) == 0 && Float.compare(this.getPanning(), note.getPanning()) == 0 && Objects.equals(this.getInstrument(), note.getInstrument());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.instrument, this.midiKey, this.volume, this.panning);
+        return Objects.hash(this.getInstrument(), this.getMidiKey(), this.getVolume(), this.getPanning());
     }
 
 }
@@ -0,0 +1,202 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.model.note;
+
+import net.raphimc.noteblocklib.model.song.Song;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A sequence of note transformations which is applied to all notes in a single traversal.<br>
+ * Every stage only looks at a single note (or at a single tick for {@link #removeDoubleNotes()}), so running all stages on one tick before moving on to the next one
+ * gives the same result as running each stage over the whole song one after another.<br>
+ * Example: {@code new NoteTransformPipeline().transform(MinecraftDefinitions::instrumentShiftNote).transform(MinecraftDefinitions::clampNoteKey).removeSilentNotes().apply(song);}
+ */
+public class NoteTransformPipeline {
+
+    private final List<Segment> segments = new ArrayList<>();
+
+    public NoteTransformPipeline() {
+        this.segments.add(new Segment());
+    }
+
+    /**
+     * Adds a stage which modifies every note.
+     *
+     * @param noteConsumer The consumer
+     * @return this
+     */
+    public NoteTransformPipeline transform(final Consumer<Note> noteConsumer) {
+        return this.removeIf(note -> {
+            noteConsumer.accept(note);
+            return false;
+        });
+    }
+
+    /**
+     * Adds a stage which removes all notes matching the given predicate.
+     *
+     * @param notePredicate The predicate
+     * @return this
+     */
+    public NoteTransformPipeline removeIf(final Predicate<Note> notePredicate) {
+        Segment segment = this.segments.get(this.segments.size() - 1);
+        if (segment.removeDoubleNotes) {
+            segment = new Segment();
+            this.segments.add(segment);
+        }
+        segment.noteStages.add(notePredicate);
+        return this;
+    }
+
+    /**
+     * Adds a stage which removes all notes with a volume of 0.
+     *
+     * @return this
+     */
+    public NoteTransformPipeline removeSilentNotes() {
+        return this.removeSilentNotes(0F);
+    }
+
+    /**
+     * Adds a stage which removes all notes with a volume lower than or equal the given threshold.
+     *
+     * @param threshold The threshold (0.0 - 1.0)
+     * @return this
+     */
+    public NoteTransformPipeline removeSilentNotes(final float threshold) {
+        return this.removeIf(note -> note.getVolume() <= threshold);
+    }
+
+    /**
+     * Adds a stage which removes duplicate notes on the same tick. The first occurrence of each note is kept in place.
+     *
+     * @return this
+     */
+    public NoteTransformPipeline removeDoubleNotes() {
+        this.segments.get(this.segments.size() - 1).removeDoubleNotes = true;
+        return this;
+    }
+
+    /**
+     * Applies all stages to the notes of the song.
+     *
+     * @param song The song
+     * @see #apply(Notes)
+     */
+    public void apply(final Song song) {
+        this.apply(song.getNotes());
+    }
+
+    /**
+     * Applies all stages to the notes of the song, processing the ticks in parallel.
+     *
+     * @param song The song
+     * @param pool The pool to run the tasks in
+     * @see #apply(Notes, ForkJoinPool)
+     */
+    public void apply(final Song song, final ForkJoinPool pool) {
+        this.apply(song.getNotes(), pool);
+    }
+
+    /**
+     * Applies all stages to the given notes. Ticks which end up without notes are removed.
+     *
+     * @param notes The notes
+     */
+    public void apply(final Notes notes) {
+        notes.transform(this, null);
+    }
+
+    /**
+     * Applies all stages to the given notes, processing the ticks in parallel. The stages have to be thread-safe.<br>
+     * Ticks which end up without notes are removed. {@link ColumnarNotes} are always processed sequentially.
+     *
+     * @param notes The notes
+     * @param pool  The pool to run the tasks in
+     */
+    public void apply(final Notes notes, final ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        notes.transform(this, pool);
+    }
+
+    /**
+     * Applies all stages to the notes of a single tick.
+     *
+     * @param notes The mutable notes of the tick
+     */
+    void applyToTick(final List<Note> notes) {
+        for (Segment segment : this.segments) {
+            if (!segment.noteStages.isEmpty()) {
+                notes.removeIf(segment::removeNote);
+            }
+            if (segment.removeDoubleNotes && notes.size() > 1) {
+                final Set<Note> distinctNotes = new LinkedHashSet<>(notes);
+                if (distinctNotes.size() != notes.size()) {
+                    notes.clear();
+                    notes.addAll(distinctNotes);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the stages using the bulk methods of the given notes. Used by implementations which don't store the notes in per tick lists.
+     *
+     * @param notes The notes
+     */
+    void applyPerStage(final Notes notes) {
+        for (Segment segment : this.segments) {
+            if (!segment.noteStages.isEmpty()) {
+                notes.removeIf(segment::removeNote);
+            }
+            if (segment.removeDoubleNotes) {
+                notes.removeDoubleNotes();
+            }
+        }
+        notes.compact();
+    }
+
+    /**
+     * A run of per note stages, optionally followed by the removal of double notes.
+     */
+    private static final class Segment {
+
+        private final List<Predicate<Note>> noteStages = new ArrayList<>();
+        private boolean removeDoubleNotes;
+
+        private boolean removeNote(final Note note) {
+            for (Predicate<Note> noteStage : this.noteStages) {
+                if (noteStage.test(note)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+}
@@ -17,6 +17,7 @@
  */
 package net.raphimc.noteblocklib.model.note;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -24,61 +25,145 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
+/**
+ * The notes of a song grouped by tick.<br>
+ * Copies share the note lists of their ticks with the original until the notes of a tick are accessed (copy-on-write). Accessing a shared tick through
+ * {@link #get(int)}, {@link #forEach(Consumer)} or any other method which hands out modifiable notes unshares it first: The side which lent the tick keeps its notes,
+ * the other sides get clones of them. So copies behave like deep copies, while ticks which are never accessed on both sides only exist once in memory.<br>
+ * Use {@link #getReadOnly(int)} or {@link #testEach(Predicate)} to read notes without unsharing the tick.
+ */
 public class Notes {
 
-    private final Map<Integer, List<Note>> notes = new HashMap<>();
+    private static final int TRANSFORM_BATCH_SIZE = 256;
+
+    private final Map<Integer, TickNotes> notes;
 
+    private int noteCount;
+    private int tickCount;
     private int lastTick;
-    private boolean recomputeLastTick = true;
+    private boolean recomputeLastTick;
+
+    public Notes() {
+        this(new HashMap<>());
+    }
+
+    /**
+     * @param notes The notes of each tick or null for subclasses which store the notes differently and override all methods which access them
+     */
+    Notes(final Map<Integer, TickNotes> notes) {
+        this.notes = notes;
+    }
 
     public List<Note> get(final int tick) {
         return this.notes.get(tick);
     }
 
     public List<Note> getOrEmpty(final int tick) {
-        return this.notes.getOrDefault(tick, Collections.emptyList());
+        final List<Note> notes = this.notes.get(tick);
+        return notes != null ? notes : Collections.emptyList();
     }
 
+    /**
+     * Gets a read-only view of the notes of the given tick without unsharing it from copies.<br>
+     * Neither the view nor the notes in it can be modified.
+     *
+     * @param tick The tick
+     * @return The notes or null if there are no notes at the given tick
+     */
+    public List<Note> getReadOnly(final int tick) {
+        final TickNotes tickNotes = this.notes.get(tick);
+        return tickNotes != null ? new ReadOnlyTickView(tickNotes) : null;
+    }
+
+    /**
+     * Sets the notes of the given tick. The notes are copied into a list owned by this object.
+     *
+     * @param tick  The tick
+     * @param notes The notes or null to clear the tick
+     */
     public void set(final int tick, final List<Note> notes) {
         if (notes != null) {
-            if (this.notes.put(tick, notes) == null) {
-                this.recomputeLastTick = true;
-            }
+            final TickNotes tickNotes = new TickNotes(tick, notes);
+            this.detach(this.notes.put(tick, tickNotes));
+            this.onSizeChanged(tick, 0, tickNotes.size());
         } else {
-            if (this.notes.remove(tick) != null) {
-                this.recomputeLastTick = true;
-            }
+            this.detach(this.notes.remove(tick));
         }
     }
 
     public void add(final int tick, final Note note) {
-        this.notes.computeIfAbsent(tick, k -> {
-            this.recomputeLastTick = true;
-            return new ArrayList<>();
-        }).add(note);
+        this.notes.computeIfAbsent(tick, TickNotes::new).add(note);
     }
 
     public void add(final int tick, final List<Note> notes) {
-        this.notes.computeIfAbsent(tick, k -> {
-            this.recomputeLastTick = true;
-            return new ArrayList<>();
-        }).addAll(notes);
+        this.notes.computeIfAbsent(tick, TickNotes::new).addAll(notes);
     }
 
     public Set<Integer> getTicks() {
         return Collections.unmodifiableSet(this.notes.keySet());
     }
 
+    /**
+     * Moves the notes of the given ticks to new ticks. The note lists are moved instead of copied where possible.<br>
+     * Notes which end up on the same tick are merged in the order of the given ticks, after the notes which were already on that tick.
+     *
+     * @param fromTicks The ticks to move (Sorted in ascending order)
+     * @param toTicks   The new ticks (Same length as fromTicks)
+     */
+    public void moveTicks(final int[] fromTicks, final int[] toTicks) {
+        if (fromTicks.length != toTicks.length) {
+            throw new IllegalArgumentException("fromTicks and toTicks must have the same length");
+        }
+
+        final TickNotes[] movedNotes = new TickNotes[fromTicks.length];
+        for (int i = 0; i < fromTicks.length; i++) {
+            movedNotes[i] = this.notes.remove(fromTicks[i]);
+        }
+        for (int i = 0; i < movedNotes.length; i++) {
+            final TickNotes tickNotes = movedNotes[i];
+            if (tickNotes == null) {
+                continue;
+            }
+            final TickNotes targetNotes = this.notes.get(toTicks[i]);
+            if (targetNotes == null) {
+                tickNotes.tick = toTicks[i];
+                this.notes.put(toTicks[i], tickNotes);
+            } else {
+                this.detach(tickNotes);
+                targetNotes.addAll(tickNotes.own());
+            }
+        }
+
+        this.tickCount = 0;
+        for (TickNotes tickNotes : this.notes.values()) {
+            if (!tickNotes.isEmpty()) {
+                this.tickCount++;
+            }
+        }
+        this.lastTick = 0;
+        this.recomputeLastTick = this.tickCount != 0;
+    }
+
     public void clearTick(final int tick) {
-        this.notes.remove(tick);
+        this.detach(this.notes.remove(tick));
     }
 
     public void clear() {
+        for (TickNotes tickNotes : this.notes.values()) {
+            tickNotes.attached = false;
+        }
         this.notes.clear();
+        this.noteCount = 0;
+        this.tickCount = 0;
+        this.lastTick = 0;
+        this.recomputeLastTick = false;
     }
 
     /**
@@ -88,21 +173,25 @@ public class Notes {
      * @param noteConsumer The consumer
      */
     public void forEach(final Consumer<Note> noteConsumer) {
-        this.notes.values().stream().flatMap(Collection::stream).forEach(noteConsumer);
+        for (TickNotes tickNotes : this.notes.values()) {
+            for (Note note : tickNotes.own()) {
+                noteConsumer.accept(note);
+            }
+        }
     }
 
     /**
      * Applies the given predicate to all notes.<br>
-     * The predicate can return true to break the iteration.<br>
+     * The predicate can return true to break the iteration. The notes passed to it are read-only.<br>
      * Use cases for this method can be for example to check if any note is outside the minecraft octave range.
      *
      * @param notePredicate The predicate
      * @return True if the predicate returned true for any note
      */
     public boolean testEach(final Predicate<Note> notePredicate) {
-        for (List<Note> list : this.notes.values()) {
-            for (Note note : list) {
-                if (notePredicate.test(note)) {
+        for (TickNotes tickNotes : this.notes.values()) {
+            for (Note note : tickNotes.shared.notes) {
+                if (notePredicate.test(new ReadOnlyNote(note))) {
                     return true;
                 }
             }
@@ -116,8 +205,8 @@ public class Notes {
      * @param notePredicate The predicate
      */
     public void removeIf(final Predicate<Note> notePredicate) {
-        for (List<Note> list : this.notes.values()) {
-            list.removeIf(notePredicate);
+        for (TickNotes tickNotes : this.notes.values()) {
+            tickNotes.removeIf(notePredicate);
         }
         this.compact();
     }
@@ -127,10 +216,10 @@ public class Notes {
      * Useful when handling large MIDI files with a lot of duplicate notes.
      */
     public void removeDoubleNotes() {
-        for (List<Note> list : this.notes.values()) {
-            final Set<Note> set = new HashSet<>(list);
-            list.clear();
-            list.addAll(set);
+        for (TickNotes tickNotes : this.notes.values()) {
+            final Set<Note> set = new HashSet<>(tickNotes.own());
+            tickNotes.clear();
+            tickNotes.addAll(set);
         }
     }
 
@@ -155,17 +244,21 @@ public class Notes {
      * Removes empty note lists from the notes map.
      */
     public void compact() {
-        this.notes.entrySet().removeIf(entry -> entry.getValue().isEmpty());
-        this.recomputeLastTick = true;
+        this.notes.values().removeIf(tickNotes -> {
+            if (tickNotes.isEmpty()) {
+                tickNotes.attached = false;
+                return true;
+            }
+            return false;
+        });
     }
 
     /**
      * @return The last tick in the song.
      */
     public int getLastTick() {
-        if (this.recomputeLastTick) {
-            this.compact();
-            this.lastTick = this.notes.keySet().stream().max(Integer::compareTo).orElse(0);
+        if (this.recomputeLastTick) { // Only required if the notes of the last tick have been removed
+            this.lastTick = this.notes.values().stream().filter(tickNotes -> !tickNotes.isEmpty()).mapToInt(tickNotes -> tickNotes.tick).max().orElse(0);
             this.recomputeLastTick = false;
         }
         return this.lastTick;
@@ -182,19 +275,407 @@ public class Notes {
      * @return The total amount of notes in a song.
      */
     public int getNoteCount() {
-        return this.notes.values().stream().mapToInt(List::size).sum();
+        return this.noteCount;
     }
 
+    /**
+     * @return The amount of ticks which contain at least one note.
+     */
+    public int getTickCount() {
+        return this.tickCount;
+    }
+
+    /**
+     * Creates an immutable, compact copy of these notes which can be shared between threads (e.g. multiple song players).
+     *
+     * @return The frozen notes
+     * @see ColumnarNotes#freeze()
+     */
+    public Notes freeze() {
+        return new ColumnarNotes(this).freeze();
+    }
+
+    /**
+     * @return Whether these notes are frozen and can't be modified.
+     */
+    public boolean isFrozen() {
+        return false;
+    }
+
+    /**
+     * Creates a copy of these notes which shares the note lists of all ticks with these notes.<br>
+     * These notes are left untouched, whichever side first modifies a shared tick clones it. So copying is cheap even for large songs and ticks which are
+     * never modified only exist once in memory.
+     *
+     * @return The copy
+     */
     public Notes copy() {
         final Notes copyNotes = new Notes();
-        for (Map.Entry<Integer, List<Note>> entry : this.notes.entrySet()) {
-            final List<Note> noteList = new ArrayList<>();
-            for (Note note : entry.getValue()) {
-                noteList.add(note.copy());
-            }
-            copyNotes.notes.put(entry.getKey(), noteList);
+        for (TickNotes tickNotes : this.notes.values()) {
+            copyNotes.notes.put(tickNotes.tick, copyNotes.new TickNotes(tickNotes));
         }
+        copyNotes.noteCount = this.noteCount;
+        copyNotes.tickCount = this.tickCount;
+        copyNotes.lastTick = this.lastTick;
+        copyNotes.recomputeLastTick = this.recomputeLastTick;
         return copyNotes;
     }
 
+    /**
+     * Applies the pipeline to the note list of every tick and recomputes the counters afterwards.
+     *
+     * @param pipeline The pipeline
+     * @param pool     The pool to process the ticks in parallel or null to process them on the calling thread
+     */
+    void transform(final NoteTransformPipeline pipeline, final ForkJoinPool pool) {
+        final TickNotes[] ticks = this.notes.values().toArray(new TickNotes[0]);
+        try {
+            if (pool != null) {
+                pool.invoke(new TransformTask(pipeline, ticks, 0, ticks.length));
+            } else {
+                for (TickNotes tickNotes : ticks) {
+                    pipeline.applyToTick(tickNotes.own());
+                }
+            }
+        } finally { // The note lists have been modified directly, so the counters are stale even if a stage failed
+            this.noteCount = 0;
+            this.tickCount = 0;
+            this.lastTick = 0;
+            this.recomputeLastTick = false;
+            this.notes.values().removeIf(tickNotes -> {
+                if (tickNotes.isEmpty()) {
+                    tickNotes.attached = false;
+                    return true;
+                }
+                this.noteCount += tickNotes.size();
+                this.tickCount++;
+                this.lastTick = Math.max(this.lastTick, tickNotes.tick);
+                return false;
+            });
+        }
+    }
+
+    private void onSizeChanged(final int tick, final int oldSize, final int newSize) {
+        this.noteCount += newSize - oldSize;
+        if (oldSize == 0 && newSize != 0) {
+            this.tickCount++;
+            if (!this.recomputeLastTick && (this.tickCount == 1 || tick > this.lastTick)) {
+                this.lastTick = tick;
+            }
+        } else if (oldSize != 0 && newSize == 0) {
+            this.tickCount--;
+            if (this.tickCount == 0) {
+                this.lastTick = 0;
+                this.recomputeLastTick = false;
+            } else if (tick == this.lastTick) {
+                this.recomputeLastTick = true;
+            }
+        }
+    }
+
+    private void detach(final TickNotes tickNotes) {
+        if (tickNotes != null) {
+            tickNotes.attached = false;
+            this.onSizeChanged(tickNotes.tick, tickNotes.size(), 0);
+        }
+    }
+
+    /**
+     * Applies a pipeline to a range of ticks, splitting the range until it is small enough.
+     */
+    private static final class TransformTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final NoteTransformPipeline pipeline;
+        private final TickNotes[] ticks;
+        private final int from;
+        private final int to;
+
+        private TransformTask(final NoteTransformPipeline pipeline, final TickNotes[] ticks, final int from, final int to) {
+            this.pipeline = pipeline;
+            this.ticks = ticks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= TRANSFORM_BATCH_SIZE) {
+                for (int i = this.from; i < this.to; i++) {
+                    this.pipeline.applyToTick(this.ticks[i].own());
+                }
+            } else {
+                final int middle = (this.from + this.to) >>> 1;
+                invokeAll(new TransformTask(this.pipeline, this.ticks, this.from, middle), new TransformTask(this.pipeline, this.ticks, middle, this.to));
+            }
+        }
+
+    }
+
+    /**
+     * The notes of a single tick. Reports every size change to the owning {@link Notes} so the counters stay up to date.<br>
+     * The note list can be shared with ticks of copies. Every access to the notes of a shared tick unshares it first: The tick which lent its list keeps its notes
+     * and leaves clones behind for the other ticks, while the other ticks take clones of the list. All state which is shared between ticks is guarded by the
+     * {@link SharedNotes}, so ticks of a song which is only read can be copied from multiple threads at once.
+     */
+    private final class TickNotes extends AbstractList<Note> implements RandomAccess {
+
+        private int tick;
+        private volatile SharedNotes shared;
+        private boolean attached = true;
+
+        private TickNotes(final int tick) {
+            this.tick = tick;
+            this.shared = new SharedNotes(new ArrayList<>(), this);
+        }
+
+        private TickNotes(final int tick, final Collection<Note> notes) {
+            this.tick = tick;
+            this.shared = new SharedNotes(new ArrayList<>(notes), this);
+        }
+
+        private TickNotes(final TickNotes tickNotes) {
+            this.tick = tickNotes.tick;
+            final SharedNotes shared = tickNotes.shared;
+            synchronized (shared) {
+                if (shared.holders == 1) { // The only holder is the one which owns the notes in the list
+                    shared.lender = tickNotes;
+                }
+                shared.holders++;
+            }
+            this.shared = shared;
+        }
+
+        @Override
+        public Note get(final int index) {
+            return this.own().get(index);
+        }
+
+        @Override
+        public int size() {
+            return this.shared.notes.size();
+        }
+
+        @Override
+        public Note set(final int index, final Note note) {
+            return this.own().set(index, note);
+        }
+
+        @Override
+        public void add(final int index, final Note note) {
+            this.own().add(index, note);
+            this.modCount++;
+            this.sizeChanged(this.size() - 1);
+        }
+
+        @Override
+        public Note remove(final int index) {
+            final Note note = this.own().remove(index);
+            this.modCount++;
+            this.sizeChanged(this.size() + 1);
+            return note;
+        }
+
+        @Override
+        public boolean addAll(final Collection<? extends Note> notes) {
+            final int oldSize = this.size();
+            if (this.own().addAll(notes)) {
+                this.modCount++;
+                this.sizeChanged(oldSize);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean removeIf(final Predicate<? super Note> filter) {
+            final int oldSize = this.size();
+            if (this.own().removeIf(filter)) {
+                this.modCount++;
+                this.sizeChanged(oldSize);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void clear() {
+            final int oldSize = this.size();
+            this.unshare(false);
+            this.shared.notes.clear();
+            this.modCount++;
+            this.sizeChanged(oldSize);
+        }
+
+        @Override
+        protected void removeRange(final int fromIndex, final int toIndex) {
+            final int oldSize = this.size();
+            this.own().subList(fromIndex, toIndex).clear();
+            this.modCount++;
+            this.sizeChanged(oldSize);
+        }
+
+        /**
+         * Gets the note list of this tick and unshares it from all copies first.
+         *
+         * @return The note list owned by this tick
+         */
+        private ArrayList<Note> own() {
+            this.unshare(true);
+            return this.shared.notes;
+        }
+
+        /**
+         * Unshares the note list of this tick from all copies which share it.<br>
+         * The note objects stay with the tick which lent the list, so references to them stay valid.
+         *
+         * @param keepNotes Whether the notes are needed afterwards. If not, the tick is unshared with an empty list
+         */
+        private void unshare(final boolean keepNotes) {
+            while (true) {
+                final SharedNotes shared = this.shared;
+                if (shared.holders == 1) {
+                    return;
+                }
+                synchronized (shared) {
+                    if (this.shared != shared) { // Another thread unshared this tick in the meantime
+                        continue;
+                    }
+                    if (shared.holders == 1) {
+                        return;
+                    }
+
+                    final ArrayList<Note> notes = new ArrayList<>(keepNotes ? shared.notes.size() : 0);
+                    if (shared.lender == this) {
+                        if (keepNotes) {
+                            notes.addAll(shared.notes);
+                        }
+                        for (int i = 0; i < shared.notes.size(); i++) { // Leave clones behind, the other ticks might not have read the notes yet
+                            shared.notes.set(i, shared.notes.get(i).copy());
+                        }
+                        shared.lender = null;
+                    } else if (keepNotes) {
+                        for (Note note : shared.notes) {
+                            notes.add(note.copy());
+                        }
+                    }
+                    shared.holders--;
+                    this.shared = new SharedNotes(notes, this);
+                    return;
+                }
+            }
+        }
+
+        private void sizeChanged(final int oldSize) {
+            if (this.attached) {
+                Notes.this.onSizeChanged(this.tick, oldSize, this.size());
+            }
+        }
+
+    }
+
+    /**
+     * A read-only view of the notes of a tick which doesn't unshare the tick.
+     */
+    private static final class ReadOnlyTickView extends AbstractList<Note> implements RandomAccess {
+
+        private final TickNotes tickNotes;
+
+        private ReadOnlyTickView(final TickNotes tickNotes) {
+            this.tickNotes = tickNotes;
+        }
+
+        @Override
+        public Note get(final int index) {
+            return new ReadOnlyNote(this.tickNotes.shared.notes.get(index));
+        }
+
+        @Override
+        public int size() {
+            return this.tickNotes.size();
+        }
+
+    }
+
+    /**
+     * A note which reads the data of another note and can't be modified.
+     */
+    private static final class ReadOnlyNote extends Note {
+
+        private final Note note;
+
+        private ReadOnlyNote(final Note note) {
+            this.note = note;
+        }
+
+        @Override
+        public int getGroupId() {
+            return this.note.getGroupId();
+        }
+
+        @Override
+        public Note setGroupId(final int groupId) {
+            throw new UnsupportedOperationException("Note is read-only");
+        }
+
+        @Override
+        public Instrument getInstrument() {
+            return this.note.getInstrument();
+        }
+
+        @Override
+        public Note setInstrument(final Instrument instrument) {
+            throw new UnsupportedOperationException("Note is read-only");
+        }
+
+        @Override
+        public float getMidiKey() {
+            return this.note.getMidiKey();
+        }
+
+        @Override
+        public Note setMidiKey(final float midiKey) {
+            throw new UnsupportedOperationException("Note is read-only");
+        }
+
+        @Override
+        public float getVolume() {
+            return this.note.getVolume();
+        }
+
+        @Override
+        public Note setVolume(final float volume) {
+            throw new UnsupportedOperationException("Note is read-only");
+        }
+
+        @Override
+        public float getPanning() {
+            return this.note.getPanning();
+        }
+
+        @Override
+        public Note setPanning(final float panning) {
+            throw new UnsupportedOperationException("Note is read-only");
+        }
+
+    }
+
+    /**
+     * A note list which can be shared between the ticks of multiple copies.<br>
+     * The structure of the list is never changed while it is shared, only the notes in it are replaced by clones when the lender unshares it.
+     */
+    private static final class SharedNotes {
+
+        private final ArrayList<Note> notes;
+        private volatile int holders = 1;
+        private TickNotes lender;
+
+        private SharedNotes(final ArrayList<Note> notes, final TickNotes lender) {
+            this.notes = notes;
+            this.lender = lender;
+        }
+
+    }
+
 }
@@ -20,12 +20,16 @@ package net.raphimc.noteblocklib.model.song;
 public class GenericSong extends Song {
 
     public GenericSong() {
-        super(null, null);
+        this(null);
+    }
+
+    public GenericSong(final String fileName) {
+        super(null, fileName);
     }
 
     @Override
     public Song copy() {
-        final GenericSong copySong = new GenericSong();
+        final GenericSong copySong = new GenericSong(this.getFileName());
         copySong.copyGeneralData(this);
         return copySong;
     }
@@ -20,11 +20,9 @@ package net.raphimc.noteblocklib.model.song;
 import net.raphimc.noteblocklib.format.SongFormat;
 import net.raphimc.noteblocklib.model.event.Events;
 import net.raphimc.noteblocklib.model.event.TempoEvents;
+import net.raphimc.noteblocklib.model.note.Note;
 import net.raphimc.noteblocklib.model.note.Notes;
 
-import java.util.Set;
-import java.util.TreeSet;
-
 public abstract class Song {
 
     private final SongFormat format;
@@ -36,6 +34,7 @@ public abstract class Song {
     private String author;
     private String originalAuthor;
     private String description;
+    private boolean frozen;
 
     protected Song(final SongFormat format, final String fileName) {
         this.format = format;
@@ -56,48 +55,16 @@ public abstract class Song {
     }
 
     public int tickToMilliseconds(final int tick) {
-        final Set<Integer> tempoEventTicks = new TreeSet<>(this.tempoEvents.getTicks());
-        tempoEventTicks.add(tick);
-
-        int lastTick = 0;
-        float totalMilliseconds = 0;
-        for (int tempoTick : tempoEventTicks) {
-            if (tempoTick > tick) {
-                break;
-            }
-
-            final float tps = this.tempoEvents.getEffectiveTempo(lastTick);
-            final int ticksInSegment = tempoTick - lastTick;
-            final float segmentMilliseconds = (ticksInSegment / tps) * 1000F;
-            totalMilliseconds += segmentMilliseconds;
-            lastTick = tempoTick;
-        }
-
-        return (int) Math.ceil(totalMilliseconds);
+        return (int) Math.ceil(this.tempoEvents.tickToMilliseconds(tick));
     }
 
     public int millisecondsToTick(final int milliseconds) {
-        final Set<Integer> tempoEventTicks = new TreeSet<>(this.tempoEvents.getTicks());
-        tempoEventTicks.add(this.notes.getLengthInTicks());
-
-        int lastTick = 0;
-        float totalMilliseconds = 0;
-        for (int tempoTick : tempoEventTicks) {
-            final float tps = this.tempoEvents.getEffectiveTempo(lastTick);
-            final int ticksInSegment = tempoTick - lastTick;
-            final float segmentMilliseconds = (ticksInSegment / tps) * 1000F;
-
-            if (totalMilliseconds + segmentMilliseconds >= milliseconds) {
-                final float remainingMilliseconds = milliseconds - totalMilliseconds;
-                final int ticksToAdd = Math.round((remainingMilliseconds / 1000F) * tps);
-                return lastTick + ticksToAdd;
-            }
-
-            totalMilliseconds += segmentMilliseconds;
-            lastTick = tempoTick;
+        final int lengthInTicks = this.notes.getLengthInTicks();
+        final int lastTick = Math.max(lengthInTicks, this.tempoEvents.getTicks().last());
+        if (milliseconds > this.tempoEvents.tickToMilliseconds(lastTick)) {
+            return lengthInTicks;
         }
-
-        return this.notes.getLengthInTicks();
+        return this.tempoEvents.millisecondsToTick(milliseconds);
     }
 
     public SongFormat getFormat() {
@@ -108,6 +75,21 @@ public abstract class Song {
         return this.notes;
     }
 
+    /**
+     * Replaces the note storage of the song (e.g. with {@link net.raphimc.noteblocklib.model.note.ColumnarNotes} for very large songs).
+     *
+     * @param notes The notes
+     * @return this
+     */
+    public Song setNotes(final Notes notes) {
+        this.checkMutable();
+        if (notes == null) {
+            throw new IllegalArgumentException("Notes cannot be null");
+        }
+        this.notes = notes;
+        return this;
+    }
+
     public Events getEvents() {
         return this.events;
     }
@@ -133,6 +115,7 @@ public abstract class Song {
     }
 
     public Song setTitle(final String title) {
+        this.checkMutable();
         if (title != null && !title.isEmpty()) {
             this.title = title;
         } else {
@@ -150,6 +133,7 @@ public abstract class Song {
     }
 
     public Song setAuthor(final String author) {
+        this.checkMutable();
         if (author != null && !author.isEmpty()) {
             this.author = author;
         } else {
@@ -167,6 +151,7 @@ public abstract class Song {
     }
 
     public Song setOriginalAuthor(final String originalAuthor) {
+        this.checkMutable();
         if (originalAuthor != null && !originalAuthor.isEmpty()) {
             this.originalAuthor = originalAuthor;
         } else {
@@ -184,6 +169,7 @@ public abstract class Song {
     }
 
     public Song setDescription(final String description) {
+        this.checkMutable();
         if (description != null && !description.isEmpty()) {
             this.description = description;
         } else {
@@ -201,6 +187,7 @@ public abstract class Song {
     }
 
     public void copyGeneralData(final Song song) {
+        this.checkMutable();
         this.notes = song.getNotes().copy();
         this.events = song.getEvents().copy();
         this.tempoEvents = song.getTempoEvents().copy();
@@ -210,6 +197,65 @@ public abstract class Song {
         this.setDescription(song.getDescription());
     }
 
+    /**
+     * Creates an immutable snapshot of the general data of this song.<br>
+     * The notes are stored in a compact {@link net.raphimc.noteblocklib.model.note.ColumnarNotes} and everything is sorted and precomputed upfront,
+     * so the snapshot can be played by any amount of song players at once without copying it. Format specific data is not included.<br>
+     * All methods which would modify the snapshot throw an {@link UnsupportedOperationException}, use {@link #thaw()} to get a mutable copy.
+     *
+     * @return The frozen song or this if the song is already frozen
+     */
+    public Song freeze() {
+        if (this.frozen) {
+            return this;
+        }
+        final Song frozenSong = new GenericSong(this.fileName);
+        frozenSong.notes = this.notes.freeze();
+        frozenSong.events = this.events.freeze();
+        frozenSong.tempoEvents = this.tempoEvents.freeze();
+        frozenSong.title = this.title;
+        frozenSong.author = this.author;
+        frozenSong.originalAuthor = this.originalAuthor;
+        frozenSong.description = this.description;
+        frozenSong.frozen = true;
+        return frozenSong;
+    }
+
+    /**
+     * Creates a mutable copy of the general data of this song if it is frozen.<br>
+     * The notes are copied back into plain {@link Notes} with regular {@link Note} objects, so they can be modified as usual.
+     *
+     * @return The thawed song or this if the song is not frozen
+     */
+    public Song thaw() {
+        if (!this.frozen) {
+            return this;
+        }
+        final Song thawedSong = new GenericSong(this.fileName);
+        for (int tick : this.notes.getTicks()) {
+            for (Note note : this.notes.getReadOnly(tick)) {
+                thawedSong.notes.add(tick, note.copy());
+            }
+        }
+        thawedSong.events = this.events.copy();
+        thawedSong.tempoEvents = this.tempoEvents.copy();
+        thawedSong.title = this.title;
+        thawedSong.author = this.author;
+        thawedSong.originalAuthor = this.originalAuthor;
+        thawedSong.description = this.description;
+        return thawedSong;
+    }
+
+    public boolean isFrozen() {
+        return this.frozen;
+    }
+
     public abstract Song copy();
 
+    private void checkMutable() {
+        if (this.frozen) {
+            throw new UnsupportedOperationException("Song is frozen");
+        }
+    }
+
 }
@@ -0,0 +1,41 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.player;
+
+/**
+ * Determines how a {@link SongPlayer} behaves when it falls behind its schedule by more than one tick (For example because of a GC pause or an overloaded scheduler).
+ */
+public enum CatchUpPolicy {
+
+    /**
+     * All missed ticks are played immediately one after another until the player has caught up.<br>
+     * The song stays in sync with the wall clock, but the missed notes are played at once.
+     */
+    BURST,
+    /**
+     * The notes of missed ticks are not played. Events are still handled.<br>
+     * The song stays in sync with the wall clock, but the missed notes are lost.
+     */
+    SKIP,
+    /**
+     * The timeline is shifted by the amount of time the player is late.<br>
+     * No notes are lost, but the song is stretched by the time the player was late.
+     */
+    STRETCH
+
+}
@@ -0,0 +1,233 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.player;
+
+import net.raphimc.noteblocklib.model.event.Event;
+import net.raphimc.noteblocklib.model.event.TempoEvents;
+import net.raphimc.noteblocklib.model.note.Note;
+import net.raphimc.noteblocklib.model.song.Song;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * An immutable, precompiled view of the notes, events and tempo changes of a song.<br>
+ * The data is stored in sorted primitive arrays, so it can be walked tick by tick with a {@link Cursor} without any hashing, boxing or allocation.<br>
+ * Frozen notes are not copied into the timeline. It keeps a read-only view of each tick instead, so frozen {@link net.raphimc.noteblocklib.model.note.ColumnarNotes} stay in their compact columns
+ * and only create a lightweight note object when a note of the view is accessed.<br>
+ * Changes made to the song after the timeline has been compiled are not reflected.
+ */
+public final class PlaybackTimeline {
+
+    private static final Map<Song, PlaybackTimeline> FROZEN_SONG_TIMELINES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final int lengthInTicks;
+    private final int noteCount;
+
+    private final int[] noteTicks;
+    private final List<Note>[] noteLists;
+    private final int[] eventTicks;
+    private final List<Event>[] eventLists;
+    private final int[] tempoTicks;
+    private final float[] tempos;
+
+    /**
+     * Compiles the timeline of the given song.
+     *
+     * @param song The song
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public PlaybackTimeline(final Song song) {
+        this.lengthInTicks = song.getNotes().getLengthInTicks();
+
+        this.noteTicks = sortedTicks(song.getNotes().getTicks());
+        this.noteLists = new List[this.noteTicks.length];
+        if (song.getNotes().isFrozen()) { // Frozen notes never change, so views of them stay valid
+            int noteCount = 0;
+            for (int i = 0; i < this.noteTicks.length; i++) {
+                this.noteLists[i] = song.getNotes().getReadOnly(this.noteTicks[i]);
+                noteCount += this.noteLists[i].size();
+            }
+            this.noteCount = noteCount;
+        } else {
+            this.noteCount = this.copyNotes(song);
+        }
+
+        this.eventTicks = sortedTicks(song.getEvents().getTicks());
+        this.eventLists = new List[this.eventTicks.length];
+        for (int i = 0; i < this.eventTicks.length; i++) {
+            this.eventLists[i] = Collections.unmodifiableList(Arrays.asList(song.getEvents().get(this.eventTicks[i]).toArray(new Event[0])));
+        }
+
+        final TempoEvents tempoEvents = song.getTempoEvents();
+        this.tempoTicks = sortedTicks(tempoEvents.getTicks());
+        this.tempos = new float[this.tempoTicks.length];
+        for (int i = 0; i < this.tempoTicks.length; i++) {
+            this.tempos[i] = tempoEvents.get(this.tempoTicks[i]);
+        }
+    }
+
+    private int copyNotes(final Song song) {
+        int noteCount = 0;
+        for (int i = 0; i < this.noteTicks.length; i++) {
+            noteCount += song.getNotes().get(this.noteTicks[i]).size();
+        }
+        final Note[] notes = new Note[noteCount];
+        final List<Note> flatNotes = Arrays.asList(notes);
+        int noteIndex = 0;
+        for (int i = 0; i < this.noteTicks.length; i++) {
+            final int start = noteIndex;
+            for (Note note : song.getNotes().get(this.noteTicks[i])) {
+                notes[noteIndex++] = note;
+            }
+            this.noteLists[i] = Collections.unmodifiableList(flatNotes.subList(start, noteIndex));
+        }
+        return noteCount;
+    }
+
+    /**
+     * Gets the timeline of the given song.<br>
+     * Timelines of frozen songs are shared between all callers, so a frozen song played by many players only exists once in memory.
+     * If multiple callers request the timeline of the same song at once, it might be compiled more than once, but only one of the timelines is kept.
+     *
+     * @param song The song
+     * @return The timeline
+     * @see Song#freeze()
+     */
+    public static PlaybackTimeline of(final Song song) {
+        if (!song.isFrozen()) {
+            return new PlaybackTimeline(song);
+        }
+        final PlaybackTimeline timeline = FROZEN_SONG_TIMELINES.get(song);
+        if (timeline != null) {
+            return timeline;
+        }
+        final PlaybackTimeline newTimeline = new PlaybackTimeline(song); // Compiled outside of the lock, so players of other songs aren't blocked
+        final PlaybackTimeline existingTimeline = FROZEN_SONG_TIMELINES.putIfAbsent(song, newTimeline);
+        return existingTimeline != null ? existingTimeline : newTimeline;
+    }
+
+    /**
+     * @return The length of the song in ticks at the time the timeline was compiled.
+     */
+    public int getLengthInTicks() {
+        return this.lengthInTicks;
+    }
+
+    /**
+     * @return The total amount of notes in the timeline.
+     */
+    public int getNoteCount() {
+        return this.noteCount;
+    }
+
+    /**
+     * @return A new cursor positioned at the start of the timeline.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private static int[] sortedTicks(final Set<Integer> ticks) {
+        final int[] sortedTicks = new int[ticks.size()];
+        int i = 0;
+        for (int tick : ticks) {
+            sortedTicks[i++] = tick;
+        }
+        Arrays.sort(sortedTicks);
+        return sortedTicks;
+    }
+
+    /**
+     * Moves the given index to the first element of the sorted array which is greater than or equal to the given tick.<br>
+     * Advancing by a single element is O(1), everything else falls back to a binary search.
+     */
+    private static int seek(final int[] ticks, final int index, final int tick) {
+        if (index < ticks.length && ticks[index] < tick) {
+            if (index + 1 >= ticks.length || ticks[index + 1] >= tick) {
+                return index + 1;
+            }
+        } else if (index == 0 || ticks[index - 1] < tick) {
+            return index;
+        }
+
+        final int result = Arrays.binarySearch(ticks, tick);
+        return result >= 0 ? result : -(result + 1);
+    }
+
+    /**
+     * A moving position in a {@link PlaybackTimeline}.<br>
+     * Sequential lookups of increasing ticks are O(1), jumps (e.g. seeking) are O(log n).<br>
+     * Cursors are not thread-safe.
+     */
+    public final class Cursor {
+
+        private int noteIndex;
+        private int eventIndex;
+        private int tempoIndex;
+
+        private Cursor() {
+        }
+
+        /**
+         * @param tick The tick
+         * @return The notes at the given tick or an empty list.
+         */
+        public List<Note> getNotes(final int tick) {
+            final int[] noteTicks = PlaybackTimeline.this.noteTicks;
+            this.noteIndex = seek(noteTicks, this.noteIndex, tick);
+            if (this.noteIndex < noteTicks.length && noteTicks[this.noteIndex] == tick) {
+                return PlaybackTimeline.this.noteLists[this.noteIndex];
+            }
+            return Collections.emptyList();
+        }
+
+        /**
+         * @param tick The tick
+         * @return The events at the given tick or an empty list.
+         */
+        public List<Event> getEvents(final int tick) {
+            final int[] eventTicks = PlaybackTimeline.this.eventTicks;
+            this.eventIndex = seek(eventTicks, this.eventIndex, tick);
+            if (this.eventIndex < eventTicks.length && eventTicks[this.eventIndex] == tick) {
+                return PlaybackTimeline.this.eventLists[this.eventIndex];
+            }
+            return Collections.emptyList();
+        }
+
+        /**
+         * @param tick The tick
+         * @return The tempo which is in effect at the given tick.
+         */
+        public float getEffectiveTempo(final int tick) {
+            final int[] tempoTicks = PlaybackTimeline.this.tempoTicks;
+            int index = seek(tempoTicks, this.tempoIndex, tick);
+            if (index >= tempoTicks.length || tempoTicks[index] != tick) {
+                index = Math.max(index - 1, 0); // Use the last tempo change before the tick
+            }
+            this.tempoIndex = index;
+            return PlaybackTimeline.this.tempos[index];
+        }
+
+    }
+
+}
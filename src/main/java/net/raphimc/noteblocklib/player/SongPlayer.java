@@ -30,12 +30,25 @@ import java.util.concurrent.TimeUnit;
 
 public abstract class SongPlayer {
 
+    private static final long MAX_DEADLINE_OFFSET = Long.MAX_VALUE / 4;
+
     private Song song;
+    private PlaybackTimeline timeline;
+    private PlaybackTimeline.Cursor timelineCursor;
     private ScheduledExecutorService scheduler;
     private ScheduledFuture<?> tickTask;
+    private SongPlayerEngine engine;
+    private SongPlayerEngine.Entry engineEntry;
     private float ticksPerSecond;
     private int tick;
     private boolean paused;
+    private CatchUpPolicy catchUpPolicy = CatchUpPolicy.BURST;
+
+    private final Object tickTaskLock = new Object();
+    private int tickTaskGeneration;
+    private long segmentStartNanos;
+    private long segmentTickCount;
+    private float segmentTicksPerSecond;
 
     private boolean useCustomScheduler;
 
@@ -70,11 +83,12 @@ public abstract class SongPlayer {
             this.stop();
         }
 
-        this.ticksPerSecond = this.song.getTempoEvents().getEffectiveTempo(tick);
+        this.recompileTimeline();
+        this.ticksPerSecond = this.getEffectiveTempo(tick);
         this.tick = tick;
 
         TimerHack.ensureRunning();
-        if (!this.useCustomScheduler) {
+        if (!this.useCustomScheduler && this.engine == null) {
             this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
                 final Thread thread = new Thread(r, "NoteBlockLib Song Player - " + this.song.getTitleOrFileNameOr("No Title"));
                 thread.setPriority(Thread.NORM_PRIORITY + 1);
@@ -93,9 +107,10 @@ public abstract class SongPlayer {
             return;
         }
 
-        this.tickTask.cancel(false);
-        this.tickTask = null;
-        if (!this.useCustomScheduler) {
+        synchronized (this.tickTaskLock) {
+            this.cancelTickTask();
+        }
+        if (!this.useCustomScheduler && this.engine == null) {
             this.scheduler.shutdownNow();
             try {
                 this.scheduler.awaitTermination(1, TimeUnit.SECONDS);
@@ -110,6 +125,9 @@ public abstract class SongPlayer {
      * @return Whether the player is in the running state (playing or paused).
      */
     public boolean isRunning() {
+        if (this.engine != null) {
+            return this.engineEntry != null && !this.engineEntry.isCancelled();
+        }
         return this.scheduler != null && !this.scheduler.isTerminated() && this.tickTask != null && !this.tickTask.isCancelled();
     }
 
@@ -128,6 +146,32 @@ public abstract class SongPlayer {
      */
     protected void setSong(final Song song) {
         this.song = song;
+        this.recompileTimeline();
+    }
+
+    /**
+     * @return The compiled timeline of the song or null if the song is not frozen.
+     */
+    public PlaybackTimeline getTimeline() {
+        if (this.timeline == null && this.song.isFrozen()) {
+            this.recompileTimeline();
+        }
+        return this.timeline;
+    }
+
+    /**
+     * Recompiles the playback timeline of the song.<br>
+     * Only frozen songs are played from a precompiled timeline. Mutable songs are read directly, so changes made to them while the player is running take effect immediately.
+     */
+    public void recompileTimeline() {
+        if (this.song.isFrozen()) {
+            final PlaybackTimeline timeline = PlaybackTimeline.of(this.song);
+            this.timelineCursor = timeline.cursor();
+            this.timeline = timeline;
+        } else {
+            this.timelineCursor = null;
+            this.timeline = null;
+        }
     }
 
     /**
@@ -185,6 +229,25 @@ public abstract class SongPlayer {
         this.paused = paused;
     }
 
+    /**
+     * @return The policy used when the player falls behind its schedule.
+     */
+    public CatchUpPolicy getCatchUpPolicy() {
+        return this.catchUpPolicy;
+    }
+
+    /**
+     * Sets the policy used when the player falls behind its schedule by more than one tick.
+     *
+     * @param catchUpPolicy The catch-up policy.
+     */
+    public void setCatchUpPolicy(final CatchUpPolicy catchUpPolicy) {
+        if (catchUpPolicy == null) {
+            throw new IllegalArgumentException("Catch-up policy cannot be null");
+        }
+        this.catchUpPolicy = catchUpPolicy;
+    }
+
     /**
      * Disables the internal scheduler and uses the provided one instead.<br>
      * The provided scheduler won't be shut down when the player is stopped.<br>
@@ -201,16 +264,39 @@ public abstract class SongPlayer {
     }
 
     /**
-     * Create the internal tick task.
+     * Lets the given engine drive this player instead of a dedicated scheduler thread.<br>
+     * Useful when playing a large amount of songs at the same time.<br>
+     * Set to null to use the internal (or custom) scheduler again.
+     *
+     * @param engine The engine to use for playing the song or null
+     */
+    protected void setEngine(final SongPlayerEngine engine) {
+        if (this.isRunning()) {
+            throw new IllegalStateException("Cannot set engine while the player is running");
+        }
+        this.engine = engine;
+    }
+
+    /**
+     * Create the internal tick task.<br>
+     * The deadline of each tick is computed from the start of the current tempo segment, so timing errors don't accumulate and tempo changes don't require rescheduling.
      *
      * @param initialDelay The initial delay in nanoseconds.
      */
     protected void createTickTask(final long initialDelay) {
-        if (this.scheduler != null) {
-            if (this.tickTask != null) {
-                this.tickTask.cancel(false);
+        if (this.scheduler != null || this.engine != null) {
+            synchronized (this.tickTaskLock) {
+                this.cancelTickTask();
+                this.segmentStartNanos = System.nanoTime() + initialDelay;
+                this.segmentTickCount = 0;
+                this.segmentTicksPerSecond = this.ticksPerSecond;
+                if (this.engine != null) {
+                    this.engineEntry = this.engine.schedule(this);
+                } else {
+                    final int generation = this.tickTaskGeneration;
+                    this.tickTask = this.scheduler.schedule(() -> this.runTickTask(generation), initialDelay, TimeUnit.NANOSECONDS);
+                }
             }
-            this.tickTask = this.scheduler.scheduleAtFixedRate(this::tick, initialDelay, (long) (1_000_000_000D / this.ticksPerSecond), TimeUnit.NANOSECONDS);
         }
     }
 
@@ -218,6 +304,87 @@ public abstract class SongPlayer {
      * Called every tick to play the notes.
      */
     protected void tick() {
+        this.tick(true);
+    }
+
+    /**
+     * Plays all ticks whose deadline has been reached at the given time and applies the catch-up policy if the player is late.
+     *
+     * @param now The current time in nanoseconds (As returned by {@link System#nanoTime()}).
+     * @return The deadline of the next tick in nanoseconds.
+     */
+    long runDueTicks(final long now) {
+        while (true) {
+            if (this.ticksPerSecond != this.segmentTicksPerSecond) { // Tempo changed, start a new segment at the deadline of the upcoming tick
+                this.segmentStartNanos = this.getNextTickDeadline();
+                this.segmentTickCount = 0;
+                this.segmentTicksPerSecond = this.ticksPerSecond;
+            }
+
+            final long deadline = this.getNextTickDeadline();
+            if (deadline - now > 0) {
+                return deadline;
+            }
+
+            boolean play = true;
+            final long lateness = now - deadline;
+            if (lateness >= 1_000_000_000D / this.segmentTicksPerSecond) { // More than one tick behind
+                switch (this.catchUpPolicy) {
+                    case BURST:
+                        break;
+                    case SKIP:
+                        play = false;
+                        break;
+                    case STRETCH:
+                        this.segmentStartNanos += lateness;
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown catch-up policy: " + this.catchUpPolicy);
+                }
+            }
+
+            if (play) {
+                this.tick();
+            } else {
+                this.tick(false);
+            }
+            this.segmentTickCount++;
+            if (!this.isRunning()) {
+                return this.getNextTickDeadline();
+            }
+        }
+    }
+
+    private void runTickTask(final int generation) {
+        final long nextTickDeadline = this.runDueTicks(System.nanoTime());
+        synchronized (this.tickTaskLock) {
+            if (generation == this.tickTaskGeneration && this.isRunning()) {
+                this.tickTask = this.scheduler.schedule(() -> this.runTickTask(generation), nextTickDeadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * @return The deadline of the next tick in nanoseconds (As returned by {@link System#nanoTime()}).
+     */
+    long getNextTickDeadline() {
+        final double offset = this.segmentTickCount * 1_000_000_000D / this.segmentTicksPerSecond;
+        return this.segmentStartNanos + (long) Math.min(offset, MAX_DEADLINE_OFFSET);
+    }
+
+    private void cancelTickTask() {
+        this.tickTaskGeneration++;
+        if (this.tickTask != null) {
+            this.tickTask.cancel(false);
+            this.tickTask = null;
+        }
+        if (this.engineEntry != null) {
+            this.engineEntry.cancel();
+            this.engineEntry = null;
+        }
+    }
+
+    private void tick(final boolean play) {
         try {
             this.preTick();
             try {
@@ -225,20 +392,19 @@ public abstract class SongPlayer {
                     return;
                 }
 
-                this.playNotes(this.song.getNotes().getOrEmpty(this.tick));
-                this.handleEvents(this.song.getEvents().getOrEmpty(this.tick));
+                if (play) {
+                    this.playNotes(this.getNotes(this.tick));
+                }
+                this.handleEvents(this.getEvents(this.tick));
 
                 this.tick++;
-                if (this.tick >= this.song.getNotes().getLengthInTicks()) {
+                if (this.tick >= this.getLengthInTicks()) {
                     this.onSongFinished();
                     if (!this.isRunning()) {
                         return; // Return if the song player has been stopped in the onSongFinished method
                     }
                 }
-                if (this.ticksPerSecond != this.song.getTempoEvents().getEffectiveTempo(this.tick)) {
-                    this.ticksPerSecond = this.song.getTempoEvents().getEffectiveTempo(this.tick);
-                    this.createTickTask((long) (1_000_000_000D / this.ticksPerSecond));
-                }
+                this.ticksPerSecond = this.getEffectiveTempo(this.tick);
             } finally {
                 this.postTick();
             }
@@ -250,6 +416,60 @@ public abstract class SongPlayer {
         }
     }
 
+    /**
+     * Returns the notes which should be played at the given tick.<br>
+     * Reads from the compiled timeline for frozen songs and from the song otherwise. Can be overridden to feed the player from another source.
+     *
+     * @param tick The tick
+     * @return The notes at the given tick
+     */
+    protected List<Note> getNotes(final int tick) {
+        final PlaybackTimeline.Cursor timelineCursor = this.getTimelineCursor();
+        return timelineCursor != null ? timelineCursor.getNotes(tick) : this.song.getNotes().getOrEmpty(tick);
+    }
+
+    /**
+     * Returns the events which should be handled at the given tick.<br>
+     * Reads from the compiled timeline for frozen songs and from the song otherwise. Can be overridden to feed the player from another source.
+     *
+     * @param tick The tick
+     * @return The events at the given tick
+     */
+    protected List<Event> getEvents(final int tick) {
+        final PlaybackTimeline.Cursor timelineCursor = this.getTimelineCursor();
+        return timelineCursor != null ? timelineCursor.getEvents(tick) : this.song.getEvents().getOrEmpty(tick);
+    }
+
+    /**
+     * Returns the tempo which is in effect at the given tick.<br>
+     * Reads from the compiled timeline for frozen songs and from the song otherwise. Can be overridden to feed the player from another source.
+     *
+     * @param tick The tick
+     * @return The tempo in ticks per second
+     */
+    protected float getEffectiveTempo(final int tick) {
+        final PlaybackTimeline.Cursor timelineCursor = this.getTimelineCursor();
+        return timelineCursor != null ? timelineCursor.getEffectiveTempo(tick) : this.song.getTempoEvents().getEffectiveTempo(tick);
+    }
+
+    /**
+     * Returns the length of the song. The song is finished once the current tick reaches the length.<br>
+     * Reads from the compiled timeline for frozen songs and from the song otherwise. Can be overridden to feed the player from another source.
+     *
+     * @return The length of the song in ticks
+     */
+    protected int getLengthInTicks() {
+        final PlaybackTimeline timeline = this.getTimeline();
+        return timeline != null ? timeline.getLengthInTicks() : this.song.getNotes().getLengthInTicks();
+    }
+
+    private PlaybackTimeline.Cursor getTimelineCursor() {
+        if (this.timelineCursor == null && this.song.isFrozen()) {
+            this.recompileTimeline();
+        }
+        return this.timelineCursor;
+    }
+
     /**
      * Called each tick to play the notes for the current tick.
      *
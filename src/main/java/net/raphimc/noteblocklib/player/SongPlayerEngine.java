@@ -0,0 +1,288 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.player;
+
+import net.raphimc.noteblocklib.util.TimerHack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives any number of {@link SongPlayer}s from a small fixed pool of threads.<br>
+ * Each thread owns a hashed timing wheel, so scheduling the next tick of a player takes constant time and no per-player threads or tasks are needed.<br>
+ * Players can be attached to an engine using {@link SongPlayer#setEngine(SongPlayerEngine)}.
+ */
+public class SongPlayerEngine {
+
+    private static final int WHEEL_SIZE = 1024; // Must be a power of two
+
+    private final long resolutionNanos;
+    private final long epochNanos;
+    private final Worker[] workers;
+    private final AtomicInteger nextWorker = new AtomicInteger();
+    private volatile boolean shutdown;
+
+    /**
+     * Creates an engine with a single thread and a resolution of 1 millisecond.
+     */
+    public SongPlayerEngine() {
+        this(1);
+    }
+
+    /**
+     * Creates an engine with a resolution of 1 millisecond.
+     *
+     * @param threadCount The amount of threads used to drive the players.
+     */
+    public SongPlayerEngine(final int threadCount) {
+        this(threadCount, TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    /**
+     * @param threadCount     The amount of threads used to drive the players.
+     * @param resolutionNanos The resolution of the timing wheel in nanoseconds. Ticks are played at most this much later than their deadline.
+     */
+    public SongPlayerEngine(final int threadCount, final long resolutionNanos) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Thread count must be greater than 0");
+        }
+        if (resolutionNanos <= 0) {
+            throw new IllegalArgumentException("Resolution must be greater than 0");
+        }
+
+        TimerHack.ensureRunning();
+        this.resolutionNanos = resolutionNanos;
+        this.epochNanos = System.nanoTime();
+        this.workers = new Worker[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            this.workers[i] = new Worker(i);
+        }
+        for (Worker worker : this.workers) {
+            worker.thread.start();
+        }
+    }
+
+    /**
+     * Shuts down the engine. All players driven by this engine are stopped.
+     */
+    public void shutdown() {
+        this.shutdown = true;
+        for (Worker worker : this.workers) {
+            LockSupport.unpark(worker.thread);
+        }
+    }
+
+    /**
+     * @return Whether the engine has been shut down.
+     */
+    public boolean isShutdown() {
+        return this.shutdown;
+    }
+
+    /**
+     * @return The amount of players currently driven by this engine.
+     */
+    public int getPlayerCount() {
+        int playerCount = 0;
+        for (Worker worker : this.workers) {
+            playerCount += worker.entryCount + worker.pending.size();
+        }
+        return playerCount;
+    }
+
+    /**
+     * Schedules the given player. The first tick is played at {@link SongPlayer#getNextTickDeadline()}.
+     *
+     * @param player The player
+     * @return The entry which can be used to cancel the scheduling
+     */
+    Entry schedule(final SongPlayer player) {
+        if (this.shutdown) {
+            throw new IllegalStateException("Engine has been shut down");
+        }
+
+        final Worker worker = this.workers[Math.floorMod(this.nextWorker.getAndIncrement(), this.workers.length)];
+        final Entry entry = new Entry(player);
+        worker.pending.add(entry);
+        LockSupport.unpark(worker.thread);
+        return entry;
+    }
+
+    private long getSlot(final long nanos) {
+        return Math.floorDiv(nanos - this.epochNanos, this.resolutionNanos);
+    }
+
+    static final class Entry {
+
+        private final SongPlayer player;
+        private volatile boolean cancelled;
+        private long deadline;
+        private Entry previous;
+        private Entry next;
+
+        private Entry(final SongPlayer player) {
+            this.player = player;
+        }
+
+        void cancel() {
+            this.cancelled = true;
+        }
+
+        boolean isCancelled() {
+            return this.cancelled;
+        }
+
+    }
+
+    private final class Worker implements Runnable {
+
+        private final Thread thread;
+        private final ConcurrentLinkedQueue<Entry> pending = new ConcurrentLinkedQueue<>();
+        private final Entry[] wheel = new Entry[WHEEL_SIZE];
+        private final List<Entry> dueEntries = new ArrayList<>();
+        private long currentSlot;
+        private volatile int entryCount;
+
+        private Worker(final int index) {
+            this.thread = new Thread(this, "NoteBlockLib Song Player Engine - " + index);
+            this.thread.setPriority(Thread.NORM_PRIORITY + 1);
+            this.thread.setDaemon(true);
+            this.currentSlot = SongPlayerEngine.this.getSlot(System.nanoTime());
+        }
+
+        @Override
+        public void run() {
+            while (!SongPlayerEngine.this.shutdown) {
+                for (Entry entry = this.pending.poll(); entry != null; entry = this.pending.poll()) {
+                    if (!entry.cancelled) {
+                        entry.deadline = entry.player.getNextTickDeadline();
+                        this.insert(entry);
+                        this.entryCount++;
+                    }
+                }
+
+                final long now = System.nanoTime();
+                final long lastCompletedSlot = SongPlayerEngine.this.getSlot(now) - 1;
+                if (lastCompletedSlot - this.currentSlot >= WHEEL_SIZE) { // Fell behind by more than one round, visiting every bucket once is enough
+                    for (int i = 0; i < WHEEL_SIZE; i++) {
+                        this.expire(i, now);
+                    }
+                    this.currentSlot = lastCompletedSlot + 1;
+                } else {
+                    while (this.currentSlot <= lastCompletedSlot) {
+                        this.expire((int) (this.currentSlot & (WHEEL_SIZE - 1)), now);
+                        this.currentSlot++;
+                    }
+                }
+
+                if (this.entryCount == 0) {
+                    LockSupport.park(this);
+                    this.currentSlot = SongPlayerEngine.this.getSlot(System.nanoTime());
+                } else { // Sleep until the end of the next occupied slot, new entries unpark the thread
+                    final long slotEnd = SongPlayerEngine.this.epochNanos + (this.nextOccupiedSlot() + 1) * SongPlayerEngine.this.resolutionNanos;
+                    LockSupport.parkNanos(this, slotEnd - System.nanoTime());
+                }
+            }
+
+            for (Entry entry = this.pending.poll(); entry != null; entry = this.pending.poll()) {
+                entry.cancel();
+            }
+            for (Entry head : this.wheel) {
+                for (Entry entry = head; entry != null; entry = entry.next) {
+                    entry.cancel();
+                }
+            }
+            this.entryCount = 0;
+        }
+
+        /**
+         * Finds the first slot starting at the current slot whose bucket contains entries.<br>
+         * The entries of that bucket might belong to a later round of the wheel, in which case the worker just wakes up early and searches again.
+         *
+         * @return The next occupied slot
+         */
+        private long nextOccupiedSlot() {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                if (this.wheel[(int) ((this.currentSlot + i) & (WHEEL_SIZE - 1))] != null) {
+                    return this.currentSlot + i;
+                }
+            }
+            return this.currentSlot + WHEEL_SIZE - 1;
+        }
+
+        private void expire(final int bucket, final long now) {
+            Entry entry = this.wheel[bucket];
+            while (entry != null) {
+                final Entry next = entry.next;
+                if (entry.cancelled) {
+                    this.unlink(entry, bucket);
+                    this.entryCount--;
+                } else if (entry.deadline - now <= 0) {
+                    this.unlink(entry, bucket);
+                    this.dueEntries.add(entry);
+                }
+                entry = next;
+            }
+
+            for (Entry dueEntry : this.dueEntries) {
+                try {
+                    dueEntry.deadline = dueEntry.player.runDueTicks(now);
+                } catch (final Throwable e) {
+                    dueEntry.cancel();
+                    dueEntry.player.onTickException(e);
+                }
+                if (dueEntry.cancelled) {
+                    this.entryCount--;
+                } else {
+                    this.insert(dueEntry);
+                }
+            }
+            this.dueEntries.clear();
+        }
+
+        private void insert(final Entry entry) {
+            final long slot = Math.max(SongPlayerEngine.this.getSlot(entry.deadline), this.currentSlot);
+            final int bucket = (int) (slot & (WHEEL_SIZE - 1));
+            entry.previous = null;
+            entry.next = this.wheel[bucket];
+            if (entry.next != null) {
+                entry.next.previous = entry;
+            }
+            this.wheel[bucket] = entry;
+        }
+
+        private void unlink(final Entry entry, final int bucket) {
+            if (entry.previous != null) {
+                entry.previous.next = entry.next;
+            } else {
+                this.wheel[bucket] = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.previous = entry.previous;
+            }
+            entry.previous = null;
+            entry.next = null;
+        }
+
+    }
+
+}
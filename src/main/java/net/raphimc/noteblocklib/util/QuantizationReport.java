@@ -0,0 +1,65 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.util;
+
+/**
+ * Describes the timing error introduced by resampling a song to a different tick speed.
+ */
+public final class QuantizationReport {
+
+    private final int noteCount;
+    private final int mergedTickCount;
+    private final double maxErrorMilliseconds;
+    private final double meanErrorMilliseconds;
+
+    public QuantizationReport(final int noteCount, final int mergedTickCount, final double maxErrorMilliseconds, final double meanErrorMilliseconds) {
+        this.noteCount = noteCount;
+        this.mergedTickCount = mergedTickCount;
+        this.maxErrorMilliseconds = maxErrorMilliseconds;
+        this.meanErrorMilliseconds = meanErrorMilliseconds;
+    }
+
+    /**
+     * @return The amount of resampled notes
+     */
+    public int getNoteCount() {
+        return this.noteCount;
+    }
+
+    /**
+     * @return The amount of ticks which have been merged into the same tick as an earlier tick
+     */
+    public int getMergedTickCount() {
+        return this.mergedTickCount;
+    }
+
+    /**
+     * @return The largest difference between the exact and the quantized time of a note in milliseconds
+     */
+    public double getMaxErrorMilliseconds() {
+        return this.maxErrorMilliseconds;
+    }
+
+    /**
+     * @return The average difference between the exact and the quantized time of a note in milliseconds
+     */
+    public double getMeanErrorMilliseconds() {
+        return this.meanErrorMilliseconds;
+    }
+
+}
@@ -0,0 +1,277 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.util;
+
+import net.raphimc.noteblocklib.NoteBlockLib;
+import net.raphimc.noteblocklib.model.note.ColumnarNotes;
+import net.raphimc.noteblocklib.model.song.Song;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of parsed songs keyed by the path, last modified time and size of the file.<br>
+ * The cache is bounded by the estimated memory usage of the songs and evicts the least recently used songs first.
+ * Concurrent requests for the same file only read the file once, the other callers wait for the result.<br>
+ * The songs are cached as frozen snapshots (See {@link Song#freeze()}), so they can be shared between all callers without copying them. Format specific data is not included.
+ * Use {@link Song#thaw()} to get a mutable copy.<br>
+ * Songs which are estimated to be larger than the whole budget are returned without being cached.
+ */
+public class SongCache {
+
+    private static final long BASE_SONG_SIZE = 1024;
+    private static final long NOTE_OBJECT_SIZE = 48; // Note object, list slot and amortized tick list overhead
+    private static final long COLUMNAR_NOTE_SIZE = 24;
+    private static final long EVENT_SIZE = 32;
+
+    private final long maxBytes;
+    private final Loader loader;
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+    private final Map<Path, Key> keysByPath = new HashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private long usedBytes;
+
+    /**
+     * Creates a cache which reads songs with {@link NoteBlockLib#readSong(Path)}.
+     *
+     * @param maxBytes The maximum estimated memory usage of the cached songs
+     */
+    public SongCache(final long maxBytes) {
+        this(maxBytes, NoteBlockLib::readSong);
+    }
+
+    /**
+     * @param maxBytes The maximum estimated memory usage of the cached songs
+     * @param loader   The loader which reads a song from a file
+     */
+    public SongCache(final long maxBytes, final Loader loader) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Max bytes must not be negative");
+        }
+        this.maxBytes = maxBytes;
+        this.loader = loader;
+    }
+
+    /**
+     * Estimates the memory usage of a song.
+     *
+     * @param song The song
+     * @return The estimated memory usage in bytes
+     */
+    public static long estimateSize(final Song song) {
+        final long noteSize = song.getNotes() instanceof ColumnarNotes ? COLUMNAR_NOTE_SIZE : NOTE_OBJECT_SIZE;
+        return BASE_SONG_SIZE + song.getNotes().getNoteCount() * noteSize + (song.getEvents().getEventCount() + song.getTempoEvents().getTicks().size()) * EVENT_SIZE;
+    }
+
+    /**
+     * Gets the song of the given file from the cache or reads it if it isn't cached or the file has changed.
+     *
+     * @param path The path of the file
+     * @return The shared frozen song
+     * @throws Exception If the file couldn't be read
+     */
+    public Song get(final Path path) throws Exception {
+        final Path normalizedPath = path.toAbsolutePath().normalize();
+        final BasicFileAttributes attributes = Files.readAttributes(normalizedPath, BasicFileAttributes.class);
+        final Key key = new Key(normalizedPath, attributes.lastModifiedTime().toMillis(), attributes.size());
+
+        final Entry entry;
+        final boolean load;
+        synchronized (this) {
+            final Entry existingEntry = this.entries.get(key);
+            if (existingEntry != null) {
+                this.hitCount.incrementAndGet();
+                entry = existingEntry;
+                load = false;
+            } else {
+                this.missCount.incrementAndGet();
+                final Key oldKey = this.keysByPath.put(normalizedPath, key);
+                if (oldKey != null) { // The file has changed
+                    this.remove(oldKey);
+                }
+                entry = new Entry();
+                this.entries.put(key, entry);
+                load = true;
+            }
+        }
+
+        if (load) {
+            try {
+                final Song song = this.loader.load(normalizedPath).freeze();
+                synchronized (this) {
+                    entry.size = estimateSize(song);
+                    if (this.entries.get(key) == entry) { // Might have been invalidated while loading
+                        if (entry.size > this.maxBytes) { // Caching it would evict every other song and then the song itself
+                            this.entries.remove(key);
+                            this.keysByPath.remove(normalizedPath, key);
+                        } else {
+                            this.usedBytes += entry.size;
+                            this.evict();
+                        }
+                    }
+                }
+                entry.future.complete(song);
+                return song;
+            } catch (final Throwable e) {
+                synchronized (this) {
+                    if (this.entries.get(key) == entry) {
+                        this.entries.remove(key);
+                        this.keysByPath.remove(normalizedPath, key);
+                    }
+                }
+                entry.future.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return entry.future.get();
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Removes the song of the given file from the cache.
+     *
+     * @param path The path of the file
+     */
+    public synchronized void invalidate(final Path path) {
+        final Key key = this.keysByPath.remove(path.toAbsolutePath().normalize());
+        if (key != null) {
+            this.remove(key);
+        }
+    }
+
+    public synchronized void clear() {
+        this.entries.clear();
+        this.keysByPath.clear();
+        this.usedBytes = 0;
+    }
+
+    public synchronized int getSongCount() {
+        return this.entries.size();
+    }
+
+    /**
+     * @return The estimated memory usage of the cached songs
+     */
+    public synchronized long getUsedBytes() {
+        return this.usedBytes;
+    }
+
+    public long getMaxBytes() {
+        return this.maxBytes;
+    }
+
+    public long getHitCount() {
+        return this.hitCount.get();
+    }
+
+    public long getMissCount() {
+        return this.missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return this.evictionCount.get();
+    }
+
+    private void remove(final Key key) {
+        final Entry entry = this.entries.remove(key);
+        if (entry != null && entry.size >= 0) {
+            this.usedBytes -= entry.size;
+        }
+    }
+
+    /**
+     * Evicts the least recently used songs until the cache fits into its budget. Songs which are still loading are skipped.
+     */
+    private void evict() {
+        final Iterator<Map.Entry<Key, Entry>> iterator = this.entries.entrySet().iterator();
+        while (this.usedBytes > this.maxBytes && iterator.hasNext()) {
+            final Map.Entry<Key, Entry> mapEntry = iterator.next();
+            final Entry entry = mapEntry.getValue();
+            if (entry.size < 0) {
+                continue;
+            }
+            iterator.remove();
+            this.keysByPath.remove(mapEntry.getKey().path, mapEntry.getKey());
+            this.usedBytes -= entry.size;
+            this.evictionCount.incrementAndGet();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Loader {
+
+        Song load(final Path path) throws Exception;
+
+    }
+
+    private static final class Key {
+
+        private final Path path;
+        private final long lastModified;
+        private final long size;
+
+        private Key(final Path path, final long lastModified, final long size) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return this.lastModified == key.lastModified && this.size == key.size && this.path.equals(key.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.path, this.lastModified, this.size);
+        }
+
+    }
+
+    private static final class Entry {
+
+        private final CompletableFuture<Song> future = new CompletableFuture<>();
+        private long size = -1; // -1 while loading
+
+    }
+
+}
@@ -18,8 +18,11 @@
 package net.raphimc.noteblocklib.util;
 
 import net.raphimc.noteblocklib.model.note.Note;
+import net.raphimc.noteblocklib.model.note.Notes;
 import net.raphimc.noteblocklib.model.song.Song;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -49,15 +52,85 @@ public final class SongResampler {
      *
      * @param song     The song
      * @param newTempo The new tick speed (Ticks per second)
+     * @see #retime(Song, float)
      */
     public static void changeTickSpeed(final Song song, final float newTempo) {
-        final Map<Double, List<Note>> notesByTime = getNotesByTime(song);
-        song.getNotes().clear();
-        for (Map.Entry<Double, List<Note>> entry : notesByTime.entrySet()) {
-            song.getNotes().add(Math.toIntExact(Math.round(entry.getKey() / 1000D * newTempo)), entry.getValue());
+        retime(song, newTempo);
+    }
+
+    /**
+     * Changes the tick speed (sample rate) of a song, without changing the musical speed or length.<br>
+     * The ticks and tempo segments are walked together in ascending order. The position of every tick is computed relative to the start of its tempo segment in double precision,
+     * together with an upper bound of the rounding error accumulated over the song. Only positions which are too close to the middle between two ticks for that bound to decide the rounding
+     * are recomputed as exact fractions, so the new ticks are exact while songs with thousands of tempo changes stay fast.
+     * The timing errors in the report are computed in double precision.<br>
+     * The note lists are moved to their new ticks instead of being copied. Ticks which end up on the same tick are merged in their original order.
+     *
+     * @param song     The song
+     * @param newTempo The new tick speed (Ticks per second)
+     * @return A report of the timing error introduced by the quantization to the new tick speed
+     */
+    public static QuantizationReport retime(final Song song, final float newTempo) {
+        final Notes notes = song.getNotes();
+        final int[] ticks = notes.getTicks().stream().mapToInt(Integer::intValue).sorted().toArray();
+        final int[] newTicks = new int[ticks.length];
+        final int[] tempoTicks = song.getTempoEvents().getTicks().stream().mapToInt(Integer::intValue).toArray();
+        final float[] tempos = new float[tempoTicks.length];
+        for (int i = 0; i < tempoTicks.length; i++) {
+            tempos[i] = song.getTempoEvents().get(tempoTicks[i]);
         }
+
+        final Fraction newTempoFraction = Fraction.of(newTempo);
+        int segmentIndex = 0;
+        double segmentStart = 0D; // Position of the current tempo segment in new ticks
+        double segmentStartError = 0D; // Upper bound of the rounding error of segmentStart
+        double segmentRatio = (double) newTempo / tempos[0]; // New ticks per old tick in the current tempo segment
+        int exactSegmentIndex = 0; // Only advanced when a position has to be computed exactly, as the fractions grow with every tempo change
+        Fraction exactSegmentStart = Fraction.ZERO;
+        int mergedTickCount = 0;
+        double maxError = 0D;
+        double totalError = 0D;
+        for (int i = 0; i < ticks.length; i++) {
+            final int tick = ticks[i];
+            while (segmentIndex + 1 < tempoTicks.length && tempoTicks[segmentIndex + 1] <= tick) {
+                final int segmentLength = tempoTicks[segmentIndex + 1] - tempoTicks[segmentIndex];
+                final double segmentTicks = segmentLength * segmentRatio;
+                segmentStart += segmentTicks;
+                segmentStartError += segmentLength * Math.ulp(segmentRatio) + Math.ulp(segmentTicks) + Math.ulp(segmentStart);
+                segmentIndex++;
+                segmentRatio = (double) newTempo / tempos[segmentIndex];
+            }
+            final int offset = tick - tempoTicks[segmentIndex];
+            final double offsetTicks = offset * segmentRatio;
+            final double exactTick = segmentStart + offsetTicks;
+            final double maxRoundingError = segmentStartError + offset * Math.ulp(segmentRatio) + Math.ulp(offsetTicks) + Math.ulp(exactTick);
+            if (Math.abs(exactTick - Math.floor(exactTick) - 0.5D) <= maxRoundingError) { // Too close to the middle between two ticks
+                while (exactSegmentIndex < segmentIndex) {
+                    final Fraction exactSegmentRatio = newTempoFraction.divide(Fraction.of(tempos[exactSegmentIndex]));
+                    exactSegmentStart = exactSegmentStart.add(exactSegmentRatio.multiply(tempoTicks[exactSegmentIndex + 1] - tempoTicks[exactSegmentIndex]));
+                    exactSegmentIndex++;
+                }
+                newTicks[i] = Math.toIntExact(exactSegmentStart.add(newTempoFraction.divide(Fraction.of(tempos[segmentIndex])).multiply(offset)).round());
+            } else {
+                newTicks[i] = Math.toIntExact(Math.round(exactTick));
+            }
+            if (i != 0 && newTicks[i] == newTicks[i - 1]) {
+                mergedTickCount++;
+            }
+
+            final double error = Math.abs(newTicks[i] - exactTick);
+            final int noteCount = notes.getReadOnly(tick).size();
+            maxError = Math.max(maxError, error);
+            totalError += error * noteCount;
+        }
+
+        final int noteCount = notes.getNoteCount();
+        notes.moveTicks(ticks, newTicks);
         song.getTempoEvents().clear();
         song.getTempoEvents().set(0, newTempo);
+
+        final double ticksToMilliseconds = 1000D / newTempo;
+        return new QuantizationReport(noteCount, mergedTickCount, maxError * ticksToMilliseconds, noteCount != 0 ? totalError / noteCount * ticksToMilliseconds : 0D);
     }
 
     /**
@@ -88,4 +161,55 @@ public final class SongResampler {
         return notesByTime;
     }
 
+    /**
+     * A non-negative fraction of arbitrary precision, used to compute tick positions without rounding errors.
+     */
+    private static final class Fraction {
+
+        private static final Fraction ZERO = new Fraction(BigInteger.ZERO, BigInteger.ONE);
+
+        private final BigInteger numerator;
+        private final BigInteger denominator;
+
+        private Fraction(final BigInteger numerator, final BigInteger denominator) {
+            final BigInteger gcd = numerator.gcd(denominator);
+            if (gcd.signum() != 0 && !gcd.equals(BigInteger.ONE)) {
+                this.numerator = numerator.divide(gcd);
+                this.denominator = denominator.divide(gcd);
+            } else {
+                this.numerator = numerator;
+                this.denominator = denominator;
+            }
+        }
+
+        private static Fraction of(final float value) {
+            final BigDecimal decimal = new BigDecimal(value); // Exact value of the float
+            if (decimal.scale() > 0) {
+                return new Fraction(decimal.unscaledValue(), BigInteger.TEN.pow(decimal.scale()));
+            } else {
+                return new Fraction(decimal.unscaledValue().multiply(BigInteger.TEN.pow(-decimal.scale())), BigInteger.ONE);
+            }
+        }
+
+        private Fraction add(final Fraction other) {
+            return new Fraction(this.numerator.multiply(other.denominator).add(other.numerator.multiply(this.denominator)), this.denominator.multiply(other.denominator));
+        }
+
+        private Fraction multiply(final long factor) {
+            return new Fraction(this.numerator.multiply(BigInteger.valueOf(factor)), this.denominator);
+        }
+
+        private Fraction divide(final Fraction other) {
+            return new Fraction(this.numerator.multiply(other.denominator), this.denominator.multiply(other.numerator));
+        }
+
+        /**
+         * @return The fraction rounded to the nearest integer, with ties rounded up like {@link Math#round(double)}
+         */
+        private long round() {
+            return this.numerator.shiftLeft(1).add(this.denominator).divide(this.denominator.shiftLeft(1)).longValueExact();
+        }
+
+    }
+
 }
@@ -0,0 +1,201 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.util.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reads primitives from a {@link ByteBuffer} whose byte order is set once on construction.<br>
+ * The buffer can either be a fixed buffer (e.g. a heap array or a memory-mapped file) or a window which is refilled in large chunks from an input stream.
+ */
+public class BinaryReader {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private ByteBuffer buffer;
+
+    /**
+     * Creates a reader over the remaining bytes of the given buffer.<br>
+     * The position, limit and byte order of the given buffer are not modified.
+     *
+     * @param buffer    The buffer to read from
+     * @param byteOrder The byte order
+     */
+    public BinaryReader(final ByteBuffer buffer, final ByteOrder byteOrder) {
+        this.in = null;
+        this.buffer = buffer.slice().order(byteOrder);
+    }
+
+    public BinaryReader(final InputStream in, final ByteOrder byteOrder) {
+        this(in, byteOrder, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a reader which refills its buffer from the given input stream.
+     *
+     * @param in         The input stream to read from
+     * @param byteOrder  The byte order
+     * @param bufferSize The size of the refill buffer
+     */
+    public BinaryReader(final InputStream in, final ByteOrder byteOrder, final int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.in = in;
+        this.buffer = ByteBuffer.allocate(bufferSize).order(byteOrder);
+        this.buffer.limit(0);
+    }
+
+    public ByteOrder getByteOrder() {
+        return this.buffer.order();
+    }
+
+    /**
+     * @return Whether there are bytes left to read.
+     * @throws IOException If an I/O error occurs
+     */
+    public boolean hasRemaining() throws IOException {
+        return this.buffer.hasRemaining() || this.fill(1);
+    }
+
+    /**
+     * Ensures that at least the given amount of bytes can be read from the buffer without refilling.
+     *
+     * @param length The amount of bytes
+     * @throws IOException If an I/O error occurs or the end of the data has been reached
+     */
+    public void require(final int length) throws IOException {
+        if (this.buffer.remaining() < length && !this.fill(length)) {
+            throw new EOFException();
+        }
+    }
+
+    public boolean readBoolean() throws IOException {
+        return this.readByte() != 0;
+    }
+
+    public byte readByte() throws IOException {
+        this.require(1);
+        return this.buffer.get();
+    }
+
+    public int readUnsignedByte() throws IOException {
+        return this.readByte() & 0xFF;
+    }
+
+    public short readShort() throws IOException {
+        this.require(2);
+        return this.buffer.getShort();
+    }
+
+    public int readUnsignedShort() throws IOException {
+        return this.readShort() & 0xFFFF;
+    }
+
+    public int readInt() throws IOException {
+        this.require(4);
+        return this.buffer.getInt();
+    }
+
+    public long readUnsignedInt() throws IOException {
+        return Integer.toUnsignedLong(this.readInt());
+    }
+
+    public long readLong() throws IOException {
+        this.require(8);
+        return this.buffer.getLong();
+    }
+
+    public float readFloat() throws IOException {
+        this.require(4);
+        return this.buffer.getFloat();
+    }
+
+    public double readDouble() throws IOException {
+        this.require(8);
+        return this.buffer.getDouble();
+    }
+
+    public byte[] readBytes(final int length) throws IOException {
+        final byte[] bytes = new byte[length];
+        this.readBytes(bytes);
+        return bytes;
+    }
+
+    public void readBytes(final byte[] bytes) throws IOException {
+        this.readBytes(bytes, 0, bytes.length);
+    }
+
+    public void readBytes(final byte[] bytes, final int offset, final int length) throws IOException {
+        int read = Math.min(length, this.buffer.remaining());
+        this.buffer.get(bytes, offset, read);
+        while (read < length) {
+            if (this.in == null) {
+                throw new EOFException();
+            }
+            final int count = this.in.read(bytes, offset + read, length - read); // Bypass the buffer for large reads
+            if (count < 0) {
+                throw new EOFException();
+            }
+            read += count;
+        }
+    }
+
+    public void skipBytes(final int length) throws IOException {
+        int skipped = Math.min(length, this.buffer.remaining());
+        this.buffer.position(this.buffer.position() + skipped);
+        while (skipped < length) {
+            this.require(1);
+            final int count = Math.min(length - skipped, this.buffer.remaining());
+            this.buffer.position(this.buffer.position() + count);
+            skipped += count;
+        }
+    }
+
+    private boolean fill(final int length) throws IOException {
+        if (this.in == null) {
+            return false;
+        }
+        if (length > this.buffer.capacity()) {
+            final ByteBuffer newBuffer = ByteBuffer.allocate(length).order(this.buffer.order());
+            newBuffer.put(this.buffer);
+            newBuffer.flip();
+            this.buffer = newBuffer;
+        }
+
+        this.buffer.compact();
+        try {
+            while (this.buffer.position() < length) {
+                final int count = this.in.read(this.buffer.array(), this.buffer.arrayOffset() + this.buffer.position(), this.buffer.remaining());
+                if (count < 0) {
+                    return false;
+                }
+                this.buffer.position(this.buffer.position() + count);
+            }
+            return true;
+        } finally {
+            this.buffer.flip();
+        }
+    }
+
+}
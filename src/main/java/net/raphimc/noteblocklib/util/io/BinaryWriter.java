@@ -0,0 +1,269 @@
+/*
+ * This file is part of NoteBlockLib - https://github.com/RaphiMC/NoteBlockLib
+ * Copyright (C) 2022-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.noteblocklib.util.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Writes primitives into a {@link ByteBuffer} whose byte order is set once on construction.<br>
+ * The buffer is either drained in large chunks to an output stream or channel, or grows in memory until {@link #toByteArray()} is called.
+ */
+public class BinaryWriter {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int MEDIUM_MIN_VALUE = -8388608;
+    private static final int MEDIUM_MAX_VALUE = 8388607;
+    private static final int UNSIGNED_BYTE_MAX_VALUE = 0xFF;
+    private static final int UNSIGNED_SHORT_MAX_VALUE = 0xFFFF;
+    private static final int UNSIGNED_MEDIUM_MAX_VALUE = 0xFFFFFF;
+    private static final long UNSIGNED_INT_MAX_VALUE = 0xFFFFFFFFL;
+
+    private final OutputStream out;
+    private final WritableByteChannel channel;
+    private ByteBuffer buffer;
+
+    /**
+     * Creates a writer which collects the written bytes in memory.
+     *
+     * @param byteOrder The byte order
+     */
+    public BinaryWriter(final ByteOrder byteOrder) {
+        this(byteOrder, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a writer which collects the written bytes in memory.
+     *
+     * @param byteOrder       The byte order
+     * @param initialCapacity The initial capacity of the buffer
+     */
+    public BinaryWriter(final ByteOrder byteOrder, final int initialCapacity) {
+        this(null, null, byteOrder, Math.max(initialCapacity, 1));
+    }
+
+    public BinaryWriter(final OutputStream out, final ByteOrder byteOrder) {
+        this(out, byteOrder, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a writer which drains its buffer to the given output stream whenever it is full.
+     *
+     * @param out        The output stream to write to
+     * @param byteOrder  The byte order
+     * @param bufferSize The size of the buffer
+     */
+    public BinaryWriter(final OutputStream out, final ByteOrder byteOrder, final int bufferSize) {
+        this(out, null, byteOrder, bufferSize);
+    }
+
+    public BinaryWriter(final WritableByteChannel channel, final ByteOrder byteOrder) {
+        this(channel, byteOrder, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a writer which drains its buffer to the given channel whenever it is full.
+     *
+     * @param channel    The channel to write to
+     * @param byteOrder  The byte order
+     * @param bufferSize The size of the buffer
+     */
+    public BinaryWriter(final WritableByteChannel channel, final ByteOrder byteOrder, final int bufferSize) {
+        this(null, channel, byteOrder, bufferSize);
+    }
+
+    private BinaryWriter(final OutputStream out, final WritableByteChannel channel, final ByteOrder byteOrder, final int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.out = out;
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize).order(byteOrder);
+    }
+
+    public ByteOrder getByteOrder() {
+        return this.buffer.order();
+    }
+
+    public void writeBoolean(final boolean v) throws IOException {
+        this.writeByte((byte) (v ? 1 : 0));
+    }
+
+    public void writeByte(final int v) throws IOException {
+        if (v < Byte.MIN_VALUE || v > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Value out of range for byte: " + v);
+        }
+        this.writeByte((byte) v);
+    }
+
+    public void writeByte(final byte v) throws IOException {
+        this.ensure(1);
+        this.buffer.put(v);
+    }
+
+    public void writeUnsignedByte(final int v) throws IOException {
+        if (v < 0 || v > UNSIGNED_BYTE_MAX_VALUE) {
+            throw new IllegalArgumentException("Value out of range for unsigned byte: " + v);
+        }
+        this.writeByte((byte) v);
+    }
+
+    public void writeShort(final int v) throws IOException {
+        if (v < Short.MIN_VALUE || v > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Value out of range for short: " + v);
+        }
+        this.writeShort((short) v);
+    }
+
+    public void writeShort(final short v) throws IOException {
+        this.ensure(2);
+        this.buffer.putShort(v);
+    }
+
+    public void writeUnsignedShort(final int v) throws IOException {
+        if (v < 0 || v > UNSIGNED_SHORT_MAX_VALUE) {
+            throw new IllegalArgumentException("Value out of range for unsigned short: " + v);
+        }
+        this.writeShort((short) v);
+    }
+
+    public void writeMedium(final int v) throws IOException {
+        if (v < MEDIUM_MIN_VALUE || v > MEDIUM_MAX_VALUE) {
+            throw new IllegalArgumentException("Value out of range for medium: " + v);
+        }
+        this.writeMedium0(v);
+    }
+
+    public void writeUnsignedMedium(final int v) throws IOException {
+        if (v < 0 || v > UNSIGNED_MEDIUM_MAX_VALUE) {
+            throw new IllegalArgumentException("Value out of range for unsigned medium: " + v);
+        }
+        this.writeMedium0(v);
+    }
+
+    public void writeInt(final int v) throws IOException {
+        this.ensure(4);
+        this.buffer.putInt(v);
+    }
+
+    public void writeUnsignedInt(final long v) throws IOException {
+        if (v < 0 || v > UNSIGNED_INT_MAX_VALUE) {
+            throw new IllegalArgumentException("Value out of range for unsigned int: " + v);
+        }
+        this.writeInt((int) v);
+    }
+
+    public void writeLong(final long v) throws IOException {
+        this.ensure(8);
+        this.buffer.putLong(v);
+    }
+
+    public void writeFloat(final float v) throws IOException {
+        this.ensure(4);
+        this.buffer.putFloat(v);
+    }
+
+    public void writeDouble(final double v) throws IOException {
+        this.ensure(8);
+        this.buffer.putDouble(v);
+    }
+
+    public void writeBytes(final byte[] bytes) throws IOException {
+        this.writeBytes(bytes, 0, bytes.length);
+    }
+
+    public void writeBytes(final byte[] bytes, final int offset, final int length) throws IOException {
+        if (this.buffer.remaining() < length && this.out != null) { // Bypass the buffer for large writes
+            this.drain();
+            if (length >= this.buffer.capacity()) {
+                this.out.write(bytes, offset, length);
+                return;
+            }
+        }
+        this.ensure(length);
+        this.buffer.put(bytes, offset, length);
+    }
+
+    /**
+     * Writes all buffered bytes to the underlying output stream or channel.<br>
+     * Does nothing if the writer collects the bytes in memory.
+     *
+     * @throws IOException If an I/O error occurs
+     */
+    public void flush() throws IOException {
+        this.drain();
+        if (this.out != null) {
+            this.out.flush();
+        }
+    }
+
+    /**
+     * @return A copy of the bytes written so far
+     * @throws IllegalStateException If the writer doesn't collect the bytes in memory
+     */
+    public byte[] toByteArray() {
+        if (this.out != null || this.channel != null) {
+            throw new IllegalStateException("Writer is not backed by memory");
+        }
+        return Arrays.copyOf(this.buffer.array(), this.buffer.position());
+    }
+
+    private void writeMedium0(final int v) throws IOException {
+        this.ensure(3);
+        if (this.buffer.order() == ByteOrder.BIG_ENDIAN) {
+            this.buffer.put((byte) (v >>> 16));
+            this.buffer.put((byte) (v >>> 8));
+            this.buffer.put((byte) v);
+        } else {
+            this.buffer.put((byte) v);
+            this.buffer.put((byte) (v >>> 8));
+            this.buffer.put((byte) (v >>> 16));
+        }
+    }
+
+    private void ensure(final int length) throws IOException {
+        if (this.buffer.remaining() >= length) {
+            return;
+        }
+        this.drain();
+        if (this.buffer.remaining() < length) { // In-memory writer or a write larger than the buffer
+            final ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(this.buffer.capacity() * 2, this.buffer.position() + length)).order(this.buffer.order());
+            this.buffer.flip();
+            newBuffer.put(this.buffer);
+            this.buffer = newBuffer;
+        }
+    }
+
+    private void drain() throws IOException {
+        if (this.out != null) {
+            this.out.write(this.buffer.array(), this.buffer.arrayOffset(), this.buffer.position());
+            this.buffer.clear();
+        } else if (this.channel != null) {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+    }
+
+}